@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * Cache of built bundles used by the builders of a {@link TinyBundlesFactory}.
+ * <p>
+ * Built bundles are cached by a digest of the contents of all resources, the headers and the builder type and
+ * options, so repeated builds with identical input return the bundle built first.
+ */
+@ProviderType
+public interface BuildCache {
+
+    /**
+     * Gets the number of builds served from the cache.
+     *
+     * @return the number of cache hits
+     */
+    long getHits();
+
+    /**
+     * Gets the number of builds not found in the cache.
+     *
+     * @return the number of cache misses
+     */
+    long getMisses();
+
+    /**
+     * Gets the number of bundles evicted from the cache.
+     *
+     * @return the number of evictions
+     */
+    long getEvictions();
+
+    /**
+     * Gets the number of cached bundles.
+     *
+     * @return the number of cached bundles
+     */
+    int getCount();
+
+    /**
+     * Gets the size in bytes of all cached bundles.
+     *
+     * @return the size of all cached bundles
+     */
+    long getSize();
+
+    /**
+     * Removes all bundles from the cache.
+     */
+    void clear();
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * Handle of a running build streaming the built bundle.
+ * <p>
+ * Cancelling the build (explicitly, by timeout or by closing the stream before it is read completely) interrupts the
+ * writer thread and closes all resources opened by the build. A reader of a cancelled or failed build gets an
+ * {@link IOException} with the cause instead of a truncated stream.
+ */
+@ProviderType
+public interface BuildHandle extends Closeable {
+
+    /**
+     * Gets the stream of the built bundle.
+     *
+     * @return the stream of the built bundle
+     */
+    @NotNull
+    InputStream getInputStream();
+
+    /**
+     * Cancels the build if not done yet.
+     */
+    void cancel();
+
+    /**
+     * Whether the build was cancelled before it was done.
+     *
+     * @return true if the build was cancelled
+     */
+    boolean isCancelled();
+
+    /**
+     * Whether the build is done, i.e. the bundle was written completely, the build failed or was cancelled.
+     *
+     * @return true if the build is done
+     */
+    boolean isDone();
+
+    /**
+     * Closes the stream and cancels the build if not done yet.
+     */
+    @Override
+    void close();
+
+    /**
+     * Creates a handle for the stream of a build which cannot be controlled otherwise.
+     * Cancelling the handle closes the stream, the handle is done when the stream was read completely or closed.
+     *
+     * @param inputStream the stream of the built bundle
+     * @return the handle
+     */
+    @NotNull
+    static BuildHandle of(@NotNull final InputStream inputStream) {
+        return new StreamBuildHandle(inputStream);
+    }
+
+}
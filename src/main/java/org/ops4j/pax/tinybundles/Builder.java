@@ -17,9 +17,19 @@
  */
 package org.ops4j.pax.tinybundles;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
 
 import org.jetbrains.annotations.NotNull;
 import org.osgi.annotation.versioning.ProviderType;
@@ -43,4 +53,85 @@ public interface Builder {
     @NotNull
     InputStream build(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers);
 
+    /**
+     * Builds the bundle with given resources and headers and returns a handle to cancel the build.
+     * TinyBundles builders cancel the build when it is not done within given time, cancelling it interrupts the writer
+     * thread and closes all resources opened by the build. Other builders close the stream only.
+     *
+     * @param resources the resources to be considered in the build
+     * @param headers   the headers to be considered in the build
+     * @param timeout   the maximum time to build, zero or less for no timeout
+     * @param unit      the time unit of the timeout
+     * @return the handle of the build
+     */
+    @NotNull
+    default BuildHandle buildHandle(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, final long timeout, @NotNull final TimeUnit unit) {
+        return BuildHandle.of(build(resources, headers));
+    }
+
+    /**
+     * Calculates the manifest of the bundle with given resources and headers without building the bundle.
+     * The manifest can be set as headers of a bundle to build it with another (e.g. raw) builder without analyzing
+     * it again.
+     *
+     * @param resources the resources to be considered in the calculation
+     * @param headers   the headers to be considered in the calculation
+     * @return the manifest of the bundle
+     * @throws IOException when reading resources fails
+     */
+    @NotNull
+    default Manifest manifest(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers) throws IOException {
+        try (JarInputStream jar = new JarInputStream(build(resources, headers))) {
+            final Manifest manifest = jar.getManifest();
+            return Objects.isNull(manifest) ? new Manifest() : manifest;
+        }
+    }
+
+    /**
+     * Builds the bundle with given resources and headers and writes it to the given stream on the calling thread.
+     * The stream is not closed.
+     *
+     * @param resources the resources to be considered in the build
+     * @param headers   the headers to be considered in the build
+     * @param target    the stream to write the built assembly (bundle or jar) to
+     * @throws IOException when writing fails
+     */
+    default void writeTo(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, @NotNull final OutputStream target) throws IOException {
+        try (InputStream inputStream = build(resources, headers)) {
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                target.write(buffer, 0, n);
+            }
+        }
+    }
+
+    /**
+     * Builds the bundle with given resources and headers and writes it to the given file on the calling thread.
+     * An existing file is overwritten.
+     *
+     * @param resources the resources to be considered in the build
+     * @param headers   the headers to be considered in the build
+     * @param target    the file to write the built assembly (bundle or jar) to
+     * @throws IOException when writing fails
+     */
+    default void writeTo(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, @NotNull final Path target) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(target)) {
+            writeTo(resources, headers, outputStream);
+        }
+    }
+
+    /**
+     * Builds the bundle with given resources and headers and writes it to the given channel on the calling thread.
+     * The channel is not closed.
+     *
+     * @param resources the resources to be considered in the build
+     * @param headers   the headers to be considered in the build
+     * @param target    the channel to write the built assembly (bundle or jar) to
+     * @throws IOException when writing fails
+     */
+    default void writeTo(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, @NotNull final WritableByteChannel target) throws IOException {
+        writeTo(resources, headers, Channels.newOutputStream(target));
+    }
+
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles;
+
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Options for builders created by {@link TinyBundlesFactory#rawBuilder(BuilderOptions)} and
+ * {@link TinyBundlesFactory#bndBuilder(BuilderOptions)}.
+ * <p>
+ * Options are immutable, every option method returns new options.
+ */
+public final class BuilderOptions {
+
+    private static final BuilderOptions DEFAULTS = new BuilderOptions(Compression.deflate(), false, false, false, false, false);
+
+    private final Compression compression;
+
+    private final boolean parallelCompression;
+
+    private final boolean reproducible;
+
+    private final boolean fastAnalysis;
+
+    private final boolean lazyStart;
+
+    private final boolean passthrough;
+
+    private BuilderOptions(final Compression compression, final boolean parallelCompression, final boolean reproducible, final boolean fastAnalysis, final boolean lazyStart, final boolean passthrough) {
+        this.compression = compression;
+        this.parallelCompression = parallelCompression;
+        this.reproducible = reproducible;
+        this.fastAnalysis = fastAnalysis;
+        this.lazyStart = lazyStart;
+        this.passthrough = passthrough;
+    }
+
+    /**
+     * Gets the default options.
+     *
+     * @return the default options
+     */
+    @NotNull
+    public static BuilderOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Sets the compression policy for the entries of built bundles.
+     *
+     * @param compression the compression policy
+     * @return the new options
+     */
+    @NotNull
+    public BuilderOptions compression(@NotNull final Compression compression) {
+        return new BuilderOptions(Objects.requireNonNull(compression), parallelCompression, reproducible, fastAnalysis, lazyStart, passthrough);
+    }
+
+    /**
+     * Enables or disables parallel compression of entries.
+     * <p>
+     * With parallel compression entries are compressed on the executor of the builder into buffers and written into
+     * the jar in order, the built jar is byte-identical to the one built with sequential compression.
+     * Compressed entries are held in memory until written and jars larger than 4 GB are not supported.
+     *
+     * @param parallelCompression true to compress entries in parallel
+     * @return the new options
+     */
+    @NotNull
+    public BuilderOptions parallelCompression(final boolean parallelCompression) {
+        return new BuilderOptions(compression, parallelCompression, reproducible, fastAnalysis, lazyStart, passthrough);
+    }
+
+    /**
+     * Enables or disables reproducible builds.
+     * <p>
+     * Reproducible builds write entries in stable order with a fixed modification time (1980-02-01, as bnd does),
+     * omit the {@code Bnd-LastModified} header and derive the default symbolic name from the bundle content
+     * instead of a random UUID. Identical input yields byte-identical bundles.
+     *
+     * @param reproducible true to build reproducible bundles
+     * @return the new options
+     */
+    @NotNull
+    public BuilderOptions reproducible(final boolean reproducible) {
+        return new BuilderOptions(compression, parallelCompression, reproducible, fastAnalysis, lazyStart, passthrough);
+    }
+
+    /**
+     * Enables or disables fast analysis in the bnd builder, the raw builder ignores this option.
+     * <p>
+     * Fast analysis skips the calculation of {@code uses} directives of exported packages, the execution environment
+     * requirement and CDI annotation processing. References of classes in private packages are still walked, as
+     * Import-Package is calculated from the references of all classes, so Import-Package and Export-Package are the
+     * same as with full analysis. Each skipped calculation can be enabled again by setting the corresponding bnd
+     * instruction (e.g. {@code -nouses: false}) as header.
+     *
+     * @param fastAnalysis true to skip optional bnd calculations
+     * @return the new options
+     */
+    @NotNull
+    public BuilderOptions fastAnalysis(final boolean fastAnalysis) {
+        return new BuilderOptions(compression, parallelCompression, reproducible, fastAnalysis, lazyStart, passthrough);
+    }
+
+    /**
+     * Enables or disables lazy start of builds.
+     * <p>
+     * Streams of lazily started builds start building (incl. the bnd analysis) on the first read and never start when
+     * closed unread, so streams which are discarded (e.g. when a bundle is installed already) cost nothing.
+     * Resources and headers are captured when the stream is created. Build failures are reported when reading
+     * the stream.
+     *
+     * @param lazyStart true to start builds on the first read
+     * @return the new options
+     */
+    @NotNull
+    public BuilderOptions lazyStart(final boolean lazyStart) {
+        return new BuilderOptions(compression, parallelCompression, reproducible, fastAnalysis, lazyStart, passthrough);
+    }
+
+    /**
+     * Enables or disables passthrough of unchanged entries in the raw builder, the bnd builder ignores this option.
+     * <p>
+     * Entries read in from jar files with {@code TinyBundle.readIn(Path)} and neither replaced nor renamed since are
+     * copied as raw compressed bytes with their local header, CRC and sizes, only the manifest and added or replaced
+     * entries are compressed. Copied entries keep their compression method and modification time, regardless of the
+     * compression policy and reproducible builds. Entries of zip64 jars are always compressed again and built jars
+     * larger than 4 GB are not supported.
+     *
+     * @param passthrough true to copy unchanged entries as raw compressed bytes
+     * @return the new options
+     */
+    @NotNull
+    public BuilderOptions passthrough(final boolean passthrough) {
+        return new BuilderOptions(compression, parallelCompression, reproducible, fastAnalysis, lazyStart, passthrough);
+    }
+
+    /**
+     * Gets the compression policy for the entries of built bundles.
+     *
+     * @return the compression policy
+     */
+    @NotNull
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Whether entries are compressed in parallel.
+     *
+     * @return true if entries are compressed in parallel
+     */
+    public boolean isParallelCompression() {
+        return parallelCompression;
+    }
+
+    /**
+     * Whether bundles are built reproducible.
+     *
+     * @return true if bundles are built reproducible
+     */
+    public boolean isReproducible() {
+        return reproducible;
+    }
+
+    /**
+     * Whether the bnd builder skips optional calculations.
+     *
+     * @return true if the bnd builder skips optional calculations
+     */
+    public boolean isFastAnalysis() {
+        return fastAnalysis;
+    }
+
+    /**
+     * Whether builds start on the first read of their stream.
+     *
+     * @return true if builds start on the first read
+     */
+    public boolean isLazyStart() {
+        return lazyStart;
+    }
+
+    /**
+     * Whether the raw builder copies unchanged entries as raw compressed bytes.
+     *
+     * @return true if unchanged entries are copied as raw compressed bytes
+     */
+    public boolean isPassthrough() {
+        return passthrough;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BuilderOptions)) {
+            return false;
+        }
+        final BuilderOptions that = (BuilderOptions) o;
+        return compression.equals(that.compression) && parallelCompression == that.parallelCompression && reproducible == that.reproducible && fastAnalysis == that.fastAnalysis && lazyStart == that.lazyStart && passthrough == that.passthrough;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(compression, parallelCompression, reproducible, fastAnalysis, lazyStart, passthrough);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BuilderOptions{compression=%s, parallelCompression=%s, reproducible=%s, fastAnalysis=%s, lazyStart=%s, passthrough=%s}", compression, parallelCompression, reproducible, fastAnalysis, lazyStart, passthrough);
+    }
+
+}
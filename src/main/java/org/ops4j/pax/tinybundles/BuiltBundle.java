@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * A completely built bundle with its size and SHA-256 digest calculated while building.
+ * <p>
+ * Small bundles are held in memory, large bundles in a temporary file. Closing the built bundle deletes its
+ * temporary file, buffers and paths obtained before must not be used afterwards.
+ */
+@ProviderType
+public interface BuiltBundle extends Closeable {
+
+    /**
+     * Gets the size in bytes of the bundle.
+     *
+     * @return the size of the bundle
+     */
+    long getSize();
+
+    /**
+     * Gets the SHA-256 digest of the bundle.
+     *
+     * @return the hex encoded SHA-256 digest
+     */
+    @NotNull
+    String getSha256();
+
+    /**
+     * Gets the content of the bundle as read-only buffer, bundles held in a file are read into memory.
+     *
+     * @return a new read-only buffer with the content of the bundle
+     * @throws IOException when reading the file fails
+     */
+    @NotNull
+    ByteBuffer toByteBuffer() throws IOException;
+
+    /**
+     * Gets the file holding the bundle, bundles held in memory are written to a temporary file on first call.
+     * The file is owned by the built bundle and deleted when the built bundle is closed.
+     *
+     * @return the file holding the bundle
+     * @throws IOException when writing the file fails
+     */
+    @NotNull
+    Path toPath() throws IOException;
+
+    /**
+     * Opens a new stream reading the bundle.
+     *
+     * @return a new stream with the content of the bundle
+     * @throws IOException when opening the file fails
+     */
+    @NotNull
+    InputStream openStream() throws IOException;
+
+    /**
+     * Deletes the temporary file of the bundle.
+     */
+    @Override
+    void close();
+
+}
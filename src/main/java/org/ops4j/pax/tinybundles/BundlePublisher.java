@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles;
+
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * Publisher of the content of a bundle as chunks with demand-driven backpressure.
+ * <p>
+ * The publisher follows the contract of {@code java.util.concurrent.Flow.Publisher<ByteBuffer>}, which is not
+ * available on Java 8, so adapting it to {@code Flow} is left to the caller. Each subscription builds the bundle on
+ * a writer thread of the given executor once the subscriber requests chunks. The writer blocks while there is no
+ * demand, so a slow subscriber occupies a thread of the executor until it completes or cancels the subscription.
+ * No reader thread is involved, chunks are signalled to the subscriber on the writer thread.
+ */
+@ProviderType
+public interface BundlePublisher {
+
+    /**
+     * Subscribes to the content of the bundle, every subscription builds the bundle again.
+     *
+     * @param subscriber the subscriber
+     */
+    void subscribe(@NotNull BundleSubscriber subscriber);
+
+}
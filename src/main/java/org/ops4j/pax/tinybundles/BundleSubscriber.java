@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles;
+
+import java.nio.ByteBuffer;
+
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ConsumerType;
+
+/**
+ * Subscriber of the content of a bundle, following the contract of
+ * {@code java.util.concurrent.Flow.Subscriber<ByteBuffer>}.
+ */
+@ConsumerType
+public interface BundleSubscriber {
+
+    /**
+     * Called once before any other method with the subscription to request chunks with.
+     *
+     * @param subscription the subscription
+     */
+    void onSubscribe(@NotNull BundleSubscription subscription);
+
+    /**
+     * Called with the next chunk of the bundle, never more often than requested.
+     * The chunk is owned by the subscriber.
+     *
+     * @param chunk the next chunk
+     */
+    void onNext(@NotNull ByteBuffer chunk);
+
+    /**
+     * Called when the build failed, no other method is called afterwards.
+     *
+     * @param throwable the failure
+     */
+    void onError(@NotNull Throwable throwable);
+
+    /**
+     * Called when all chunks of the bundle were signalled, no other method is called afterwards.
+     */
+    void onComplete();
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * Subscription to the content of a bundle, following the contract of {@code java.util.concurrent.Flow.Subscription}.
+ */
+@ProviderType
+public interface BundleSubscription {
+
+    /**
+     * Requests given number of chunks, the build starts with the first request.
+     * Requesting zero or less chunks fails the subscription with an {@link IllegalArgumentException}.
+     *
+     * @param n the number of additional chunks
+     */
+    void request(long n);
+
+    /**
+     * Cancels the subscription and the build, chunks already requested may still be signalled.
+     */
+    void cancel();
+
+}
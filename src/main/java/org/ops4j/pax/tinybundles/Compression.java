@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compression policy for the entries of built bundles.
+ * <p>
+ * Entries are either deflated with a given level or stored uncompressed. Optionally entries with already compressed
+ * content (e.g. embedded jars or images) are stored uncompressed, as deflating them burns CPU for no gain.
+ */
+public final class Compression {
+
+    /**
+     * File extensions of already compressed content.
+     */
+    public static final Set<String> COMPRESSED_EXTENSIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "jar", "zip", "war", "ear", "rar", "jmod", "kar",
+        "gz", "tgz", "bz2", "xz", "zst", "lz4", "7z",
+        "png", "jpg", "jpeg", "gif", "webp",
+        "mp3", "mp4", "ogg", "woff", "woff2"
+    )));
+
+    private static final Compression DEFAULT = new Compression(Deflater.DEFAULT_COMPRESSION, false, false);
+
+    private static final Compression STORED = new Compression(Deflater.NO_COMPRESSION, true, false);
+
+    private final int level;
+
+    private final boolean stored;
+
+    private final boolean storeCompressedContent;
+
+    private Compression(final int level, final boolean stored, final boolean storeCompressedContent) {
+        this.level = level;
+        this.stored = stored;
+        this.storeCompressedContent = storeCompressedContent;
+    }
+
+    /**
+     * Gets the default compression, all entries are deflated with default level.
+     *
+     * @return the default compression
+     */
+    @NotNull
+    public static Compression deflate() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets a compression deflating all entries with given level.
+     *
+     * @param level the deflate level from 0 to 9, or -1 for default level
+     * @return the compression
+     */
+    @NotNull
+    public static Compression deflate(final int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(String.format("Invalid deflate level: %s", level));
+        }
+        return new Compression(level, false, false);
+    }
+
+    /**
+     * Gets a compression storing all entries uncompressed.
+     *
+     * @return the compression
+     */
+    @NotNull
+    public static Compression stored() {
+        return STORED;
+    }
+
+    /**
+     * Derives a compression which stores entries with already compressed content uncompressed.
+     *
+     * @return the derived compression
+     * @see #COMPRESSED_EXTENSIONS
+     */
+    @NotNull
+    public Compression storeCompressedContent() {
+        return new Compression(level, stored, true);
+    }
+
+    /**
+     * Gets the deflate level.
+     *
+     * @return the deflate level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Whether all entries are stored uncompressed.
+     *
+     * @return true if all entries are stored uncompressed
+     */
+    public boolean isStored() {
+        return stored;
+    }
+
+    /**
+     * Whether entries with already compressed content are stored uncompressed.
+     *
+     * @return true if entries with already compressed content are stored uncompressed
+     */
+    public boolean isStoreCompressedContent() {
+        return storeCompressedContent;
+    }
+
+    /**
+     * Whether the entry with given path is stored uncompressed.
+     *
+     * @param path the entry path
+     * @return true if the entry is stored uncompressed
+     */
+    public boolean isStored(@NotNull final String path) {
+        if (stored) {
+            return true;
+        }
+        if (storeCompressedContent) {
+            final int dot = path.lastIndexOf('.');
+            return dot > path.lastIndexOf('/') && COMPRESSED_EXTENSIONS.contains(path.substring(dot + 1).toLowerCase(Locale.ROOT));
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Compression)) {
+            return false;
+        }
+        final Compression that = (Compression) o;
+        return level == that.level && stored == that.stored && storeCompressedContent == that.storeCompressedContent;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(level, stored, storeCompressedContent);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Compression{level=%s, stored=%s, storeCompressedContent=%s}", level, stored, storeCompressedContent);
+    }
+
+}
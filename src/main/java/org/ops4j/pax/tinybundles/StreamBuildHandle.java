@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link BuildHandle} for a plain stream, cancelling closes the stream. The handle is done when the stream was read
+ * completely, closed or cancelled.
+ */
+final class StreamBuildHandle implements BuildHandle {
+
+    private final InputStream inputStream;
+
+    private volatile boolean cancelled;
+
+    private volatile boolean completed;
+
+    StreamBuildHandle(final InputStream inputStream) {
+        this.inputStream = new CompletionInputStream(inputStream);
+    }
+
+    @Override
+    @NotNull
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        close();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return completed || cancelled;
+    }
+
+    @Override
+    public void close() {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            // nothing to do
+        }
+    }
+
+    /**
+     * Marks the handle completed at the end of the stream or when the stream is closed.
+     */
+    private final class CompletionInputStream extends FilterInputStream {
+
+        private CompletionInputStream(final InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b == -1) {
+                completed = true;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            final int n = super.read(bytes, offset, length);
+            if (n == -1) {
+                completed = true;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            completed = true;
+            super.close();
+        }
+
+    }
+
+}
@@ -17,8 +17,18 @@
  */
 package org.ops4j.pax.tinybundles;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 
@@ -74,6 +84,50 @@ public interface TinyBundle {
     @NotNull
     TinyBundle addResource(@NotNull final String path, @NotNull final InputStream resource);
 
+    /**
+     * Adds the content into the bundle, it is kept in memory without copying it to the store.
+     * The array must not be modified afterwards.
+     *
+     * @param path    the path where the resource gets stored in the bundle
+     * @param content the content of the resource
+     * @return the tiny bundle
+     */
+    @NotNull
+    TinyBundle addResource(@NotNull final String path, @NotNull final byte[] content);
+
+    /**
+     * Adds the remaining content of the buffer into the bundle, it is kept in memory without copying it to the store.
+     * The position of the buffer is not changed, its content must not be modified afterwards.
+     *
+     * @param path    the path where the resource gets stored in the bundle
+     * @param content the buffer with the content of the resource
+     * @return the tiny bundle
+     */
+    @NotNull
+    TinyBundle addResource(@NotNull final String path, @NotNull final ByteBuffer content);
+
+    /**
+     * Adds the file into the bundle, it is referenced directly and read when building.
+     *
+     * @param path the path where the resource gets stored in the bundle
+     * @param file the file to be added
+     * @return the tiny bundle
+     */
+    @NotNull
+    TinyBundle addResource(@NotNull final String path, @NotNull final Path file);
+
+    /**
+     * Adds the resource into the bundle, its content is supplied when the bundle is built.
+     * The supplier is called each time the content is read (e.g. once per build, also for build cache keys) and the
+     * supplied stream is closed after reading, I/O problems may be thrown as {@link java.io.UncheckedIOException}.
+     *
+     * @param path    the path where the resource gets stored in the bundle
+     * @param content the supplier of the resource content
+     * @return the tiny bundle
+     */
+    @NotNull
+    TinyBundle addResource(@NotNull final String path, @NotNull final Supplier<? extends InputStream> content);
+
     /**
      * Removes a resource from the bundle.
      *
@@ -158,6 +212,29 @@ public interface TinyBundle {
     @NotNull
     TinyBundle readIn(@NotNull final JarInputStream jar, final boolean skipContent);
 
+    /**
+     * Reads an existing bundle or plain jar file into this bundle.
+     * Only the manifest and the central directory are read, entry content is read when building.
+     * The file must not be modified until the bundle is built, it is open only while building.
+     *
+     * @param jar the source bundle or jar file
+     * @return the tiny bundle
+     */
+    @NotNull
+    TinyBundle readIn(@NotNull final Path jar);
+
+    /**
+     * Reads an existing bundle or plain jar file into this bundle, taking only entries accepted by given filter.
+     * Only the manifest and the central directory are read, entry content is read when building.
+     * The file must not be modified until the bundle is built, it is open only while building.
+     *
+     * @param jar    the source bundle or jar file
+     * @param filter the filter of entry names to take, e.g. {@code name -> !name.startsWith("OSGI-OPT/")}
+     * @return the tiny bundle
+     */
+    @NotNull
+    TinyBundle readIn(@NotNull final Path jar, @NotNull final Predicate<String> filter);
+
     /**
      * Builds the bundle with default bnd {@link Builder}.
      *
@@ -175,4 +252,130 @@ public interface TinyBundle {
     @NotNull
     InputStream build(@NotNull final Builder builder);
 
+    /**
+     * Builds the bundle with given {@link Builder} and returns a handle to cancel the build.
+     *
+     * @param builder the builder to be used for building
+     * @return the handle of the build
+     */
+    @NotNull
+    BuildHandle buildHandle(@NotNull final Builder builder);
+
+    /**
+     * Builds the bundle with given {@link Builder} and returns a handle to cancel the build.
+     * The build is cancelled when not done within given time, its reader gets an {@link IOException} caused by a
+     * {@link java.util.concurrent.TimeoutException} then.
+     *
+     * @param builder the builder to be used for building
+     * @param timeout the maximum time to build, zero or less for no timeout
+     * @param unit    the time unit of the timeout
+     * @return the handle of the build
+     */
+    @NotNull
+    BuildHandle buildHandle(@NotNull final Builder builder, final long timeout, @NotNull final TimeUnit unit);
+
+    /**
+     * Builds the bundle asynchronously with given {@link Builder} on given executor.
+     * <p>
+     * The bundle is built completely, its size and SHA-256 digest are calculated while building. The result completes
+     * exceptionally when the build fails. Resources and headers are captured when called, later modifications of this
+     * tiny bundle do not affect the build.
+     *
+     * @param builder  the builder to be used for building
+     * @param executor the executor to build the bundle on
+     * @return the result completed with the built bundle
+     */
+    @NotNull
+    CompletableFuture<BuiltBundle> buildAsync(@NotNull final Builder builder, @NotNull final Executor executor);
+
+    /**
+     * Creates a publisher of the bundle built with given {@link Builder} on given executor.
+     * <p>
+     * Every subscription builds the bundle when chunks are requested first, the bundle is written only as fast as
+     * chunks are requested. The writer blocks a thread of the executor while waiting for demand. Resources and headers
+     * are captured when called.
+     *
+     * @param builder  the builder to be used for building
+     * @param executor the executor to build the bundle on
+     * @return the publisher of the bundle
+     */
+    @NotNull
+    BundlePublisher publish(@NotNull final Builder builder, @NotNull final Executor executor);
+
+    /**
+     * Calculates the manifest of the bundle with default bnd {@link Builder} without building the bundle.
+     *
+     * @return the calculated manifest
+     * @throws IOException when reading resources fails
+     */
+    @NotNull
+    Manifest calculateManifest() throws IOException;
+
+    /**
+     * Calculates the manifest of the bundle with given {@link Builder} without building the bundle.
+     *
+     * @param builder the builder to be used for calculation
+     * @return the calculated manifest
+     * @throws IOException when reading resources fails
+     */
+    @NotNull
+    Manifest calculateManifest(@NotNull final Builder builder) throws IOException;
+
+    /**
+     * Builds the bundle with default bnd {@link Builder} and writes it to the given stream on the calling thread.
+     * The stream is not closed.
+     *
+     * @param target the stream to write the built bundle to
+     * @throws IOException when writing fails
+     */
+    void writeTo(@NotNull final OutputStream target) throws IOException;
+
+    /**
+     * Builds the bundle with given {@link Builder} and writes it to the given stream on the calling thread.
+     * The stream is not closed.
+     *
+     * @param target  the stream to write the built bundle to
+     * @param builder the builder to be used for building
+     * @throws IOException when writing fails
+     */
+    void writeTo(@NotNull final OutputStream target, @NotNull final Builder builder) throws IOException;
+
+    /**
+     * Builds the bundle with default bnd {@link Builder} and writes it to the given file on the calling thread.
+     * An existing file is overwritten.
+     *
+     * @param target the file to write the built bundle to
+     * @throws IOException when writing fails
+     */
+    void writeTo(@NotNull final Path target) throws IOException;
+
+    /**
+     * Builds the bundle with given {@link Builder} and writes it to the given file on the calling thread.
+     * An existing file is overwritten.
+     *
+     * @param target  the file to write the built bundle to
+     * @param builder the builder to be used for building
+     * @throws IOException when writing fails
+     */
+    void writeTo(@NotNull final Path target, @NotNull final Builder builder) throws IOException;
+
+    /**
+     * Builds the bundle with default bnd {@link Builder} and writes it to the given channel on the calling thread.
+     * The channel is not closed.
+     *
+     * @param target the channel to write the built bundle to
+     * @throws IOException when writing fails
+     */
+    void writeTo(@NotNull final WritableByteChannel target) throws IOException;
+
+    /**
+     * Builds the bundle with given {@link Builder} and writes it to the given channel on the calling thread.
+     * The channel is not closed.
+     *
+     * @param target  the channel to write the built bundle to
+     * @param builder the builder to be used for building
+     * @throws IOException when writing fails
+     */
+    void writeTo(@NotNull final WritableByteChannel target, @NotNull final Builder builder) throws IOException;
+
 }
@@ -17,8 +17,14 @@
  */
 package org.ops4j.pax.tinybundles;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
 
 import org.ops4j.store.Store;
 import org.osgi.annotation.versioning.ProviderType;
@@ -35,12 +41,20 @@ import org.osgi.framework.ServiceReference;
 @ProviderType
 public class TinyBundles {
 
+    private static volatile TinyBundlesFactory serviceLoaderFactory;
+
     private TinyBundles() { //
     }
 
     private static TinyBundlesFactory factory() {
+        final TinyBundlesFactory factory = serviceLoaderFactory;
+        if (Objects.nonNull(factory)) {
+            return factory;
+        }
         try {
-            return ServiceLoader.load(TinyBundlesFactory.class).iterator().next();
+            // keep the factory, so its store and build cache are shared by all bundles
+            serviceLoaderFactory = ServiceLoader.load(TinyBundlesFactory.class).iterator().next();
+            return serviceLoaderFactory;
         } catch (Exception e) { //
         }
         try {
@@ -80,6 +94,16 @@ public class TinyBundles {
         return factory().bndBuilder();
     }
 
+    /**
+     * Creates a new bnd builder with given options.
+     *
+     * @param options the builder options
+     * @return the new bnd builder
+     */
+    public static Builder bndBuilder(final BuilderOptions options) {
+        return factory().bndBuilder(options);
+    }
+
     /**
      * Creates a new raw builder.
      *
@@ -89,4 +113,60 @@ public class TinyBundles {
         return factory().rawBuilder();
     }
 
+    /**
+     * Creates a new raw builder with given options.
+     *
+     * @param options the builder options
+     * @return the new raw builder
+     */
+    public static Builder rawBuilder(final BuilderOptions options) {
+        return factory().rawBuilder(options);
+    }
+
+    /**
+     * Creates a new store keeping small resources in memory and spilling large resources to temporary files.
+     *
+     * @param memoryBudget the maximum number of bytes held in memory by all resources
+     * @param direct       true to hold resources in direct (off-heap) buffers instead of heap buffers
+     * @return the new store
+     * @see TinyBundlesFactory#tieredStore(long, boolean)
+     */
+    public static Store<InputStream> tieredStore(final long memoryBudget, final boolean direct) {
+        return factory().tieredStore(memoryBudget, direct);
+    }
+
+    /**
+     * Creates a store in given directory keeping each distinct resource content once.
+     *
+     * @param directory the directory of the store
+     * @param maxSize   the maximum size in bytes of all resources
+     * @return the new store
+     * @throws IOException when creating or indexing the directory fails
+     * @see TinyBundlesFactory#contentStore(Path, long)
+     */
+    public static Store<InputStream> contentStore(final Path directory, final long maxSize) throws IOException {
+        return factory().contentStore(directory, maxSize);
+    }
+
+    /**
+     * Builds all given bundles concurrently with given builder.
+     *
+     * @param bundles the bundles to build
+     * @param builder the builder used for all bundles
+     * @return the results in order of the given bundles, each completed when its bundle is built
+     * @see TinyBundlesFactory#buildAll(Collection, Builder)
+     */
+    public static List<CompletableFuture<InputStream>> buildAll(final Collection<TinyBundle> bundles, final Builder builder) {
+        return factory().buildAll(bundles, builder);
+    }
+
+    /**
+     * Gets the cache of bundles built by the builders of the factory.
+     *
+     * @return the build cache or null if builds are not cached
+     */
+    public static BuildCache buildCache() {
+        return factory().buildCache();
+    }
+
 }
@@ -17,9 +17,15 @@
  */
 package org.ops4j.pax.tinybundles;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.ops4j.store.Store;
 import org.osgi.annotation.versioning.ProviderType;
 
@@ -46,6 +52,36 @@ public interface TinyBundlesFactory {
     @NotNull
     TinyBundle bundle(@NotNull final Store<InputStream> store);
 
+    /**
+     * Creates a new store keeping small resources in memory and spilling large resources to temporary files.
+     * <p>
+     * Resources up to 1 MB are held in memory as long as the memory budget allows. Builders read resources held in
+     * memory without a file round-trip. The store is {@link java.io.Closeable}, closing it releases all resources and
+     * deletes spilled files.
+     *
+     * @param memoryBudget the maximum number of bytes held in memory by all resources
+     * @param direct       true to hold resources in direct (off-heap) buffers instead of heap buffers
+     * @return the new store
+     */
+    @NotNull
+    Store<InputStream> tieredStore(final long memoryBudget, final boolean direct);
+
+    /**
+     * Creates a store in given directory keeping each distinct resource content once.
+     * <p>
+     * Resources are stored in files named by the SHA-256 digest of their content. A resource is referenced as long as
+     * a tiny bundle holds it, when the size of all resources exceeds the maximum size, the least recently used
+     * resources no longer referenced are deleted. On creation, files left over by previous JVMs are indexed and
+     * partially written files are deleted. The directory must not be shared by concurrent JVMs.
+     *
+     * @param directory the directory of the store
+     * @param maxSize   the maximum size in bytes of all resources
+     * @return the new store
+     * @throws IOException when creating or indexing the directory fails
+     */
+    @NotNull
+    Store<InputStream> contentStore(@NotNull final Path directory, final long maxSize) throws IOException;
+
     /**
      * Creates a new bnd builder.
      *
@@ -54,6 +90,15 @@ public interface TinyBundlesFactory {
     @NotNull
     Builder bndBuilder();
 
+    /**
+     * Creates a new bnd builder with given options.
+     *
+     * @param options the builder options
+     * @return the new bnd builder
+     */
+    @NotNull
+    Builder bndBuilder(@NotNull final BuilderOptions options);
+
     /**
      * Creates a new raw builder.
      *
@@ -62,4 +107,37 @@ public interface TinyBundlesFactory {
     @NotNull
     Builder rawBuilder();
 
+    /**
+     * Creates a new raw builder with given options.
+     *
+     * @param options the builder options
+     * @return the new raw builder
+     */
+    @NotNull
+    Builder rawBuilder(@NotNull final BuilderOptions options);
+
+    /**
+     * Builds all given bundles concurrently with given builder.
+     * <p>
+     * Bundles are built on the builder threads of this factory, at most as many bundles as processors are available
+     * are built at the same time, which bounds the number of jars held in memory while building. Builds share the build cache
+     * and classpath jars of this factory's builders. Each result completes with the built bundle in memory or with
+     * the failure of its build, a failed build does not affect the other builds. Cancelling a result skips its build
+     * when not started yet.
+     *
+     * @param bundles the bundles to build
+     * @param builder the builder used for all bundles
+     * @return the results in order of the given bundles, each completed when its bundle is built
+     */
+    @NotNull
+    List<CompletableFuture<InputStream>> buildAll(@NotNull final Collection<TinyBundle> bundles, @NotNull final Builder builder);
+
+    /**
+     * Gets the cache of bundles built by the builders of this factory.
+     *
+     * @return the build cache or null if builds are not cached
+     */
+    @Nullable
+    BuildCache buildCache();
+
 }
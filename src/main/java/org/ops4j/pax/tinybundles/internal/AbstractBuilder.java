@@ -17,18 +17,24 @@
  */
 package org.ops4j.pax.tinybundles.internal;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PipedOutputStream;
 import java.net.URL;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarOutputStream;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
 
 import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BuilderOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,52 +46,124 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class AbstractBuilder implements Builder {
 
-    private static final String ENTRY_MANIFEST = "META-INF/MANIFEST.MF";
-
     private static final String MANIFEST_HEADER_NAME = "Pax-TinyBundles";
 
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
     private final Logger logger = LoggerFactory.getLogger(AbstractBuilder.class);
 
-    protected void build(final Map<String, URL> resources, final Map<String, String> headers, final PipedOutputStream pout, final CloseAwarePipedInputStream pin) {
-        try (JarOutputStream jarOut = new JarOutputStream(pout)) {
-            build(resources, headers, jarOut);
-        } catch (IOException e) {
-            handleBuildException(e, pin);
+    private final Executor executor;
+
+    private final int pipeCapacity;
+
+    private final BuilderOptions options;
+
+    protected AbstractBuilder() {
+        this(BuildExecutors.defaultExecutor(), RingBufferPipe.DEFAULT_CAPACITY, BuilderOptions.defaults());
+    }
+
+    /**
+     * @param executor     the executor running the writer threads
+     * @param pipeCapacity the capacity in bytes of the pipe between writer thread and consumer
+     * @param options      the builder options
+     */
+    protected AbstractBuilder(final Executor executor, final int pipeCapacity, final BuilderOptions options) {
+        this.executor = executor;
+        this.pipeCapacity = pipeCapacity;
+        this.options = options;
+    }
+
+    protected BuilderOptions getOptions() {
+        return options;
+    }
+
+    protected Executor getExecutor() {
+        return executor;
+    }
+
+    protected RingBufferPipe createPipe() {
+        return new RingBufferPipe(pipeCapacity);
+    }
+
+    /**
+     * Creates a build task writing into a new pipe on a writer thread of this builder, the task is not started.
+     *
+     * @param body the work of the build
+     * @return the build task
+     */
+    protected BuildTask createTask(final BuildTask.Body body) {
+        return new BuildTask(createPipe(), body, executor);
+    }
+
+    protected void build(final Map<String, URL> resources, final Map<String, String> headers, final BuildTask task, final RingBufferPipe pipe) {
+        JarWriter writer = null;
+        try {
+            writer = JarWriter.create(wrapPipe(pipe), options, executor);
+            writer.track(task);
+            build(resources, headers, writer);
+            writer.close();
+        } catch (Exception e) {
+            // fail the pipe before closing the writer, so the consumer does not see a regular end of stream
+            handleBuildException(e, pipe);
+            closeQuietly(writer);
         }
     }
 
-    protected void build(final Map<String, URL> resources, final Map<String, String> headers, final JarOutputStream jarOut) throws IOException {
-        addManifest(headers, jarOut);
-        for (final Map.Entry<String, URL> entry : resources.entrySet()) {
-            addResource(entry, jarOut);
+    protected void build(final Map<String, URL> resources, final Map<String, String> headers, final OutputStream target) throws IOException {
+        try (JarWriter writer = JarWriter.create(wrapTarget(target), options, executor)) {
+            build(resources, headers, writer);
         }
     }
 
-    private void addManifest(final Map<String, String> headers, final JarOutputStream jarOut) throws IOException {
-        final Manifest manifest = createManifest(headers.entrySet());
-        final JarEntry entry = new JarEntry(ENTRY_MANIFEST);
-        jarOut.putNextEntry(entry);
-        manifest.write(jarOut);
-        jarOut.closeEntry();
+    /**
+     * Wraps the target of a synchronous build.
+     * Small writes of the jar stream are buffered and closing the returned stream does not close the target.
+     *
+     * @param target the target stream
+     * @return the wrapped stream
+     */
+    protected OutputStream wrapTarget(final OutputStream target) {
+        return new BufferedOutputStream(new UncloseableOutputStream(target), OUTPUT_BUFFER_SIZE);
     }
 
-    private void addResource(final Map.Entry<String, URL> entrySet, final JarOutputStream jarOut) throws IOException {
-        final JarEntry entry = new JarEntry(entrySet.getKey());
-        logger.debug("Adding resource {} [{}]", entry.getName(), entrySet.getValue());
-        jarOut.putNextEntry(entry);
-        try (InputStream inputStream = entrySet.getValue().openStream()) {
-            copy(inputStream, jarOut);
-        }
+    /**
+     * Wraps the write end of the pipe of an asynchronous build.
+     * Small writes of the jar stream are buffered, so the pipe is locked once per buffer instead of once per write.
+     *
+     * @param pipe the pipe of the build
+     * @return the wrapped stream, closing it closes the write end of the pipe
+     */
+    protected OutputStream wrapPipe(final RingBufferPipe pipe) {
+        return new BufferedOutputStream(pipe.getOutputStream(), OUTPUT_BUFFER_SIZE);
     }
 
-    private void copy(final InputStream source, final OutputStream sink) throws IOException {
-        final byte[] buffer = new byte[1024];
-        int n;
-        while ((n = source.read(buffer)) > 0) {
-            sink.write(buffer, 0, n);
+    private void build(final Map<String, URL> resources, final Map<String, String> headers, final JarWriter writer) throws IOException {
+        addManifest(headers, writer);
+        try (Closeable sources = ZipSource.lease(resources.values())) {
+            for (final Map.Entry<String, URL> entry : new TreeMap<>(resources).entrySet()) {
+                if (options.isPassthrough() && writer.copy(entry.getKey(), entry.getValue())) {
+                    logger.debug("Copied resource {} [{}]", entry.getKey(), entry.getValue());
+                    continue;
+                }
+                logger.debug("Adding resource {} [{}]", entry.getKey(), entry.getValue());
+                writer.write(createEntry(entry.getKey()), entry.getValue());
+            }
+            // entries of parallel writers are read on other threads until finished
+            writer.finish();
         }
     }
 
+    private ZipEntry createEntry(final String path) {
+        return options.isReproducible() ? JarWriter.createEntry(path, JarWriter.REPRODUCIBLE_TIME) : new ZipEntry(path);
+    }
+
+    private void addManifest(final Map<String, String> headers, final JarWriter writer) throws IOException {
+        final Manifest manifest = createManifest(new TreeMap<>(headers).entrySet());
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        manifest.write(outputStream);
+        writer.write(createEntry(JarFile.MANIFEST_NAME), outputStream.toByteArray());
+    }
+
     /**
      * The calculated manifest for this build output.
      * Relies on input given.
@@ -105,12 +183,50 @@ public abstract class AbstractBuilder implements Builder {
         return manifest;
     }
 
-    protected void handleBuildException(final Exception e, final CloseAwarePipedInputStream pin) {
-        if (pin.isClosed()) {
+    /**
+     * Handles an exception in the writer thread.
+     * The pipe is failed, so the consumer gets an {@link IOException} instead of a truncated jar.
+     *
+     * @param e    the exception
+     * @param pipe the pipe the jar is written to
+     */
+    protected void handleBuildException(final Exception e, final RingBufferPipe pipe) {
+        if (pipe.isClosed()) {
             logger.debug("Consumer stopped reading jar from stream before it was completely built.", e);
         } else {
-            throw new RuntimeException("Problem while writing jar.", e);
+            logger.debug("Problem while writing jar.", e);
+            pipe.fail(e);
+        }
+    }
+
+    protected void closeQuietly(final Closeable closeable) {
+        if (Objects.isNull(closeable)) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException | RuntimeException e) {
+            // a zip stream failed while writing an entry cannot be finished anymore
+            logger.debug("Problem closing {} after failed build.", closeable, e);
+        }
+    }
+
+    private static class UncloseableOutputStream extends FilterOutputStream {
+
+        UncloseableOutputStream(final OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            out.write(bytes, offset, length);
         }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
     }
 
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds many bundles concurrently.
+ * <p>
+ * A fixed number of workers take the next bundle to build from the batch until all bundles are built, so at most
+ * that many bundles are analyzed and held as jars at the same time. Each bundle is built completely into memory
+ * on the calling worker, without background writer threads and pipes.
+ */
+public final class BatchBuild {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchBuild.class);
+
+    private final List<TinyBundle> bundles;
+
+    private final Builder builder;
+
+    private final List<CompletableFuture<InputStream>> results = new ArrayList<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private BatchBuild(final Collection<TinyBundle> bundles, final Builder builder) {
+        this.bundles = new ArrayList<>(bundles);
+        this.builder = builder;
+        for (int i = 0; i < this.bundles.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+    }
+
+    /**
+     * Builds all bundles with given builder.
+     *
+     * @param bundles       the bundles to build
+     * @param builder       the builder used for all bundles
+     * @param executor      the executor running the workers
+     * @param maxConcurrent the maximum number of bundles built at the same time
+     * @return the results in order of the given bundles, each completed when its bundle is built
+     */
+    public static List<CompletableFuture<InputStream>> buildAll(final Collection<TinyBundle> bundles, final Builder builder, final Executor executor, final int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Maximum number of concurrent builds must be positive.");
+        }
+        final BatchBuild batch = new BatchBuild(bundles, builder);
+        final int workers = Math.min(maxConcurrent, batch.bundles.size());
+        LOGGER.debug("Building {} bundles with {} workers", batch.bundles.size(), workers);
+        for (int i = 0; i < workers; i++) {
+            executor.execute(batch::work);
+        }
+        return batch.results;
+    }
+
+    private void work() {
+        int index;
+        while ((index = next.getAndIncrement()) < bundles.size()) {
+            final CompletableFuture<InputStream> result = results.get(index);
+            if (result.isDone()) {
+                // cancelled
+                continue;
+            }
+            try {
+                final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                bundles.get(index).writeTo(outputStream, builder);
+                result.complete(new ByteArrayInputStream(outputStream.toByteArray()));
+            } catch (Throwable t) {
+                // errors too, so no result is left incomplete
+                result.completeExceptionally(t);
+            }
+        }
+    }
+
+}
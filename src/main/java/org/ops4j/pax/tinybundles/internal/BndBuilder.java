@@ -17,21 +17,46 @@
  */
 package org.ops4j.pax.tinybundles.internal;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
 
 import aQute.bnd.osgi.Analyzer;
 import aQute.bnd.osgi.Builder;
+import aQute.bnd.osgi.EmbeddedResource;
 import aQute.bnd.osgi.Jar;
+import aQute.bnd.osgi.Processor;
+import aQute.bnd.osgi.Resource;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.ops4j.pax.tinybundles.BuildHandle;
+import org.ops4j.pax.tinybundles.BuilderOptions;
 import org.osgi.framework.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,19 +70,57 @@ import org.slf4j.LoggerFactory;
  */
 public class BndBuilder extends AbstractBuilder {
 
+    private static final int PRELOAD_THRESHOLD = 16;
+
+    /**
+     * bnd instructions skipping optional calculations in fast analysis mode.
+     */
+    private static final Map<String, String> FAST_ANALYSIS;
+
+    static {
+        final Map<String, String> instructions = new HashMap<>();
+        instructions.put(aQute.bnd.osgi.Constants.NOUSES, "true");
+        instructions.put(aQute.bnd.osgi.Constants.NOEE, "true");
+        instructions.put(aQute.bnd.osgi.Constants.CDIANNOTATIONS, "");
+        FAST_ANALYSIS = Collections.unmodifiableMap(instructions);
+    }
+
     private final Logger logger = LoggerFactory.getLogger(BndBuilder.class);
 
+    private final ClasspathJarPool classpathJars;
+
+    public BndBuilder() {
+        this.classpathJars = null;
+    }
+
+    public BndBuilder(final Executor executor, final int pipeCapacity, final BuilderOptions options) {
+        this(executor, pipeCapacity, options, null);
+    }
+
+    /**
+     * @param executor      the executor running the writer threads
+     * @param pipeCapacity  the capacity in bytes of the pipes between writer threads and consumers
+     * @param options       the builder options
+     * @param classpathJars the pool of jars given with {@code -classpath} instruction, null to let bnd open them
+     */
+    public BndBuilder(final Executor executor, final int pipeCapacity, final BuilderOptions options, @Nullable final ClasspathJarPool classpathJars) {
+        super(executor, pipeCapacity, options);
+        this.classpathJars = classpathJars;
+    }
+
     @Override
     @NotNull
     public InputStream build(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers) {
         logger.info("Building jar from resources and headers.");
-        final CloseAwarePipedInputStream pin = new CloseAwarePipedInputStream();
-        try (PipedOutputStream pout = new PipedOutputStream(pin)) {
-            new Thread(() -> build(resources, headers, pout, pin)).start();
-            // creating the jar from pre-built stream instead of putting resources one by one
-            // allows finer control over added resources
-            final Jar jar = buildJar(pin, headers);
-            return write(jar);
+        try {
+            if (getOptions().isLazyStart()) {
+                // the analysis runs with the build on the first read
+                return createTask(analyzeAndWrite(new HashMap<>(resources), new HashMap<>(headers))).getInputStream();
+            }
+            final AnalyzedJar jar = buildJar(resources, headers, null);
+            final BuildTask task = createTask((t, pipe) -> write(jar, t, pipe));
+            task.start();
+            return task.getInputStream();
         } catch (Exception e) {
             throw new RuntimeException(e);
         } finally {
@@ -65,57 +128,406 @@ public class BndBuilder extends AbstractBuilder {
         }
     }
 
-    private Jar buildJar(final InputStream inputStream, final Map<String, String> headers) throws Exception {
-        final Jar jar = new Jar("tiny bundle", inputStream);
-        jar.setManifest(createManifest(headers.entrySet()));
+    /**
+     * Analyzes and writes the jar on the writer thread, so cancelling the build stops the analysis too.
+     */
+    @Override
+    @NotNull
+    public BuildHandle buildHandle(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, final long timeout, @NotNull final TimeUnit unit) {
+        logger.info("Building jar from resources and headers.");
+        final BuildTask task = createTask(analyzeAndWrite(resources, headers));
+        task.timeout(timeout, unit);
+        task.cancelOnClose();
+        task.start();
+        return task;
+    }
+
+    private BuildTask.Body analyzeAndWrite(final Map<String, URL> resources, final Map<String, String> headers) {
+        return (task, pipe) -> {
+            final AnalyzedJar jar;
+            try {
+                jar = buildJar(resources, headers, task);
+            } catch (Exception e) {
+                handleBuildException(e, pipe);
+                closeQuietly(pipe.getOutputStream());
+                return;
+            }
+            write(jar, task, pipe);
+        };
+    }
+
+    @Override
+    public void writeTo(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, @NotNull final OutputStream target) throws IOException {
+        logger.info("Writing jar from resources and headers.");
+        final AnalyzedJar jar;
+        try {
+            jar = buildJar(resources, headers, null);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Problem while analyzing jar.", e);
+        }
+        try (OutputStream outputStream = wrapTarget(target)) {
+            writeJar(jar.jar, outputStream, null);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Problem while writing jar.", e);
+        } finally {
+            jar.close();
+            logger.info("Writing jar finished.");
+        }
+    }
+
+    /**
+     * Analyzes the resources and returns the calculated manifest without writing the jar.
+     */
+    @Override
+    @NotNull
+    public Manifest manifest(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers) throws IOException {
+        logger.info("Calculating manifest from resources and headers.");
+        try (AnalyzedJar jar = buildJar(resources, headers, null)) {
+            return jar.jar.getManifest();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Problem while calculating manifest.", e);
+        }
+    }
+
+    /**
+     * Builds and analyzes the jar.
+     *
+     * @param resources the resources
+     * @param headers   the headers
+     * @param task      the build task tracking the jar, null when not cancellable
+     * @return the analyzed jar
+     */
+    private AnalyzedJar buildJar(final Map<String, URL> resources, final Map<String, String> headers, @Nullable final BuildTask task) throws Exception {
+        final AnalyzedJar analyzed = new AnalyzedJar(new Jar("tiny bundle"));
+        try {
+            if (Objects.nonNull(task)) {
+                task.track(analyzed);
+            }
+            analyzed.sources = ZipSource.lease(resources.values());
+            for (final Map.Entry<String, URL> entry : resources.entrySet()) {
+                addResource(entry, analyzed.jar);
+            }
+            preloadClasses(analyzed.jar);
+            analyze(analyzed, resources, headers);
+            return analyzed;
+        } catch (Exception e) {
+            if (Objects.nonNull(task)) {
+                task.untrack(analyzed);
+            }
+            analyzed.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds the resource as lazy bnd resource, the content is read when needed for analysis or writing only.
+     * Directories are implied by bnd and the manifest gets calculated from headers, so both are skipped.
+     *
+     * @param entry the resource path and URL
+     * @param jar   the jar
+     */
+    private void addResource(final Map.Entry<String, URL> entry, final Jar jar) throws IOException {
+        final String path = entry.getKey();
+        if (path.endsWith("/") || JarFile.MANIFEST_NAME.equals(path)) {
+            logger.debug("Skipping resource {} [{}]", path, entry.getValue());
+            return;
+        }
+        logger.debug("Adding resource {} [{}]", path, entry.getValue());
+        jar.putResource(path, UrlResource.of(entry.getValue()));
+    }
+
+    /**
+     * Loads the content of class resources in parallel before analysis, so bnd's sequential parsing of all classes
+     * does not wait for reading (and inflating) each class from its source. Small bundles are left lazy.
+     * Classes which cannot be loaded are left as is, bnd reports them when parsing.
+     * <p>
+     * Reading blocks on IO, so helpers run on the executor of this builder (not on the common fork-join pool).
+     * The calling thread loads classes too and waits only for classes a helper is loading, so loading completes even
+     * when the executor is busy or bounded and the caller is one of its threads.
+     *
+     * @param jar the jar
+     */
+    private void preloadClasses(final Jar jar) {
+        final List<Map.Entry<String, Resource>> classes = jar.getResources().entrySet().stream()
+            .filter(entry -> entry.getKey().endsWith(".class"))
+            .collect(Collectors.toList());
+        if (classes.size() < PRELOAD_THRESHOLD) {
+            return;
+        }
+        logger.debug("Preloading {} classes", classes.size());
+        final List<CompletableFuture<Resource>> loaded = new ArrayList<>(classes.size());
+        for (int i = 0; i < classes.size(); i++) {
+            loaded.add(new CompletableFuture<>());
+        }
+        final AtomicInteger next = new AtomicInteger();
+        final Runnable loader = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < classes.size()) {
+                final Resource resource = classes.get(i).getValue();
+                try {
+                    loaded.get(i).complete(load(resource));
+                } finally {
+                    // never leave the caller waiting, e.g. on errors
+                    loaded.get(i).complete(resource);
+                }
+            }
+        };
+        final int helpers = Math.min(Runtime.getRuntime().availableProcessors(), classes.size() / PRELOAD_THRESHOLD) - 1;
+        for (int i = 0; i < helpers; i++) {
+            try {
+                getExecutor().execute(loader);
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        loader.run();
+        for (int i = 0; i < classes.size(); i++) {
+            jar.putResource(classes.get(i).getKey(), loaded.get(i).join());
+        }
+    }
+
+    private static Resource load(final Resource resource) {
+        if (resource instanceof EmbeddedResource) {
+            return resource;
+        }
+        try {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            resource.write(outputStream);
+            final Resource loaded = new EmbeddedResource(outputStream.toByteArray(), resource.lastModified());
+            loaded.setExtra(resource.getExtra());
+            return loaded;
+        } catch (Exception e) {
+            return resource;
+        }
+    }
+
+    private void analyze(final AnalyzedJar analyzed, final Map<String, URL> resources, final Map<String, String> headers) throws Exception {
+        final Jar jar = analyzed.jar;
+        if (getOptions().isReproducible()) {
+            jar.setReproducible("true");
+        }
+        jar.setManifest(createManifest(new TreeMap<>(headers).entrySet()));
         final Properties properties = new Properties();
         properties.putAll(headers);
+        if (getOptions().isFastAnalysis()) {
+            FAST_ANALYSIS.forEach(properties::putIfAbsent);
+        }
+        final List<ClasspathJarPool.Lease> leases = leaseClasspath(properties);
+        // resources copied from classpath jars are read when writing, so the leases are released with the jar
+        analyzed.leases = leases;
         final Builder builder = new Builder();
+            analyzed.builder = builder;
         builder.setJar(jar);
+        // the jar outlives the builder until it is written
+        builder.removeClose(jar);
         builder.setProperties(properties);
+        for (final ClasspathJarPool.Lease lease : leases) {
+            builder.addClasspath(lease.getJar());
+            // pooled jars are shared and must not be closed with the builder
+            builder.removeClose(lease.getJar());
+        }
         // throw away already existing headers that we overwrite:
         builder.mergeManifest(jar.getManifest());
-        ensureSanitizedSymbolicName(builder);
+        ensureSanitizedSymbolicName(builder, resources, headers);
         final Manifest manifest = builder.calcManifest();
         jar.setManifest(manifest);
-        return jar;
     }
 
     /**
-     * Creates a piped input stream for the jar.
+     * Leases the jar files given with {@code -classpath} instruction from the pool and removes them from the
+     * instruction. Entries which are not files (e.g. directories or missing files) are left to bnd.
      *
-     * @param jar the jar
-     * @return an input stream for the jar
+     * @param properties the bnd properties
+     * @return the leases of the pooled classpath jars
+     */
+    private List<ClasspathJarPool.Lease> leaseClasspath(final Properties properties) throws IOException {
+        final List<ClasspathJarPool.Lease> leases = new ArrayList<>();
+        final String classpath = properties.getProperty(aQute.bnd.osgi.Constants.CLASSPATH);
+        if (Objects.isNull(classpathJars) || Objects.isNull(classpath)) {
+            return leases;
+        }
+        final List<String> remaining = new ArrayList<>();
+        try {
+            for (final String entry : Processor.split(classpath)) {
+                final File file = new File(entry);
+                if (file.isFile()) {
+                    leases.add(classpathJars.acquire(file));
+                } else {
+                    remaining.add(entry);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            leases.forEach(ClasspathJarPool.Lease::close);
+            throw e;
+        }
+        if (remaining.isEmpty()) {
+            properties.remove(aQute.bnd.osgi.Constants.CLASSPATH);
+        } else {
+            properties.setProperty(aQute.bnd.osgi.Constants.CLASSPATH, String.join(",", remaining));
+        }
+        return leases;
+    }
+
+    /**
+     * Writes the jar into the pipe of the build task and closes it.
+     *
+     * @param jar  the analyzed jar
+     * @param task the build task
+     * @param pipe the pipe to write the jar to
      */
-    private PipedInputStream write(final Jar jar) throws IOException {
-        final CloseAwarePipedInputStream pin = new CloseAwarePipedInputStream();
-        final PipedOutputStream pout = new PipedOutputStream(pin);
+    private void write(final AnalyzedJar jar, final BuildTask task, final RingBufferPipe pipe) {
+        final OutputStream outputStream = wrapPipe(pipe);
+        try {
+            task.track(jar);
+            writeJar(jar.jar, outputStream, task);
+            outputStream.close();
+        } catch (Exception e) {
+            handleBuildException(e, pipe);
+        } finally {
+            task.untrack(jar);
+            // closes the write end without flushing, a failed build leaves buffered bytes behind
+            close(jar, pipe.getOutputStream());
+        }
+    }
 
-        new Thread(() -> {
-            try {
-                jar.write(pout);
-            } catch (Exception e) {
-                handleBuildException(e, pin);
-            } finally {
-                close(jar, pout);
+    /**
+     * Writes the jar the way bnd does: manifest first, then signature files and all other resources, each preceded by
+     * entries for its parent directories. Resources get their modification time (or the current time when unknown),
+     * manifest and directories the modification time of the jar. Reproducible builds use a fixed time for all entries.
+     *
+     * @param jar          the jar
+     * @param outputStream the stream to write the jar to
+     * @param task         the build task tracking streams opened by the writer, null when not cancellable
+     */
+    private void writeJar(final Jar jar, final OutputStream outputStream, @Nullable final BuildTask task) throws Exception {
+        final JarWriter writer = JarWriter.create(outputStream, getOptions(), getExecutor());
+        writer.track(task);
+        final Set<String> directories = new HashSet<>();
+        final Set<String> written = new HashSet<>();
+        final long time = getOptions().isReproducible() ? JarWriter.REPRODUCIBLE_TIME : jar.lastModified();
+        writeDirectories(writer, directories, JarFile.MANIFEST_NAME, time);
+        final ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+        jar.writeManifest(manifest);
+        writer.write(JarWriter.createEntry(JarFile.MANIFEST_NAME, time), manifest.toByteArray());
+        written.add(JarFile.MANIFEST_NAME);
+        final Map<String, Resource> metaInf = jar.getDirectory("META-INF");
+        if (Objects.nonNull(metaInf)) {
+            for (final Map.Entry<String, Resource> entry : metaInf.entrySet()) {
+                if (Jar.METAINF_SIGNING_P.matcher(entry.getKey()).matches() && written.add(entry.getKey())) {
+                    writeResource(writer, directories, time, entry.getKey(), entry.getValue());
+                }
             }
-        }).start();
+        }
+        for (final Map.Entry<String, Resource> entry : jar.getResources().entrySet()) {
+            if (!written.contains(entry.getKey())) {
+                writeResource(writer, directories, time, entry.getKey(), entry.getValue());
+            }
+        }
+        writer.finish();
+    }
 
-        return pin;
+    private void writeResource(final JarWriter writer, final Set<String> directories, final long time, final String path, final Resource resource) throws Exception {
+        writeDirectories(writer, directories, path, time);
+        if (path.endsWith(Analyzer.EMPTY_HEADER)) {
+            return;
+        }
+        final long lastModified = getOptions().isReproducible() ? JarWriter.REPRODUCIBLE_TIME : resource.lastModified();
+        final ZipEntry entry = JarWriter.createEntry(path, lastModified == 0 ? System.currentTimeMillis() : lastModified);
+        if (Objects.nonNull(resource.getExtra())) {
+            entry.setExtra(Resource.decodeExtra(resource.getExtra()));
+        }
+        writer.write(entry, resource);
+    }
+
+    private void writeDirectories(final JarWriter writer, final Set<String> directories, final String path, final long time) throws IOException {
+        final int index = path.lastIndexOf('/');
+        if (index > 0) {
+            final String directory = path.substring(0, index);
+            if (directories.add(directory)) {
+                writeDirectories(writer, directories, directory, time);
+                writer.writeDirectory(JarWriter.createEntry(directory + '/', time));
+            }
+        }
     }
 
     /**
      * Sanitizes symbolic name and replaces OSGi spec invalid characters with underscore (_).
+     * Bundles without symbolic name get a random one, or one derived from their content when built reproducible.
      *
-     * @param analyzer bnd analyzer
+     * @param analyzer  bnd analyzer
+     * @param resources the resources
+     * @param headers   the headers
      */
-    private void ensureSanitizedSymbolicName(final Analyzer analyzer) {
-        final String defaultSymbolicName = String.format("TinyBundle-%s", UUID.randomUUID());
-        final String symbolicName = analyzer.getProperty(Constants.BUNDLE_SYMBOLICNAME, defaultSymbolicName);
+    private void ensureSanitizedSymbolicName(final Analyzer analyzer, final Map<String, URL> resources, final Map<String, String> headers) throws IOException {
+        String symbolicName = analyzer.getProperty(Constants.BUNDLE_SYMBOLICNAME);
+        if (Objects.isNull(symbolicName)) {
+            symbolicName = String.format("TinyBundle-%s", getOptions().isReproducible() ? contentId(resources, headers) : randomId());
+        }
         final String sanitizedSymbolicName = symbolicName.replaceAll("[^a-zA-Z_0-9.-]", "_");
         analyzer.setProperty(Constants.BUNDLE_SYMBOLICNAME, sanitizedSymbolicName);
     }
 
+    private static String contentId(final Map<String, URL> resources, final Map<String, String> headers) throws IOException {
+        final MessageDigest digest = Digests.sha256();
+        Digests.update(digest, resources, headers);
+        return Digests.toHex(digest.digest()).substring(0, 32);
+    }
+
+    /**
+     * Creates a random id formatted like a UUID, {@link ThreadLocalRandom} avoids contention on the shared secure random.
+     */
+    private static String randomId() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    /**
+     * A jar with the bnd builder which analyzed it. The builder keeps jars it opened from the classpath (their
+     * resources may have been copied into the jar), so it is closed together with the jar after writing. Zip files
+     * the resources are read from and leased classpath jars are kept open until then too.
+     */
+    private static final class AnalyzedJar implements Closeable {
+
+        private final Jar jar;
+
+        private volatile Builder builder;
+
+        private volatile Closeable sources;
+
+        private volatile List<ClasspathJarPool.Lease> leases = Collections.emptyList();
+
+        private AnalyzedJar(final Jar jar) {
+            this.jar = jar;
+        }
+
+        @Override
+        public void close() throws IOException {
+            final Builder analyzer = builder;
+            try {
+                if (Objects.nonNull(analyzer)) {
+                    analyzer.close();
+                }
+            } finally {
+                try {
+                    jar.close();
+                } finally {
+                    leases.forEach(ClasspathJarPool.Lease::close);
+                    final Closeable leased = sources;
+                    if (Objects.nonNull(leased)) {
+                        leased.close();
+                    }
+                }
+            }
+        }
+
+    }
+
     private void close(final Closeable... closeables) {
         for (final Closeable closeable : closeables) {
             try {
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * URLs of content held in buffers.
+ * <p>
+ * The handler of such an URL holds the buffer, so the content lives as long as the URL is reachable and needs no
+ * store. Builders get the buffer of an URL with {@link #toBuffer(URL)} to write the content without streaming it.
+ */
+public final class BufferUrls {
+
+    public static final String SCHEME = "tinybundles-buffer";
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private BufferUrls() { //
+    }
+
+    /**
+     * Creates an URL of the remaining content of the buffer.
+     * The buffer is not copied and must not be modified afterwards, its position is not changed. Heap buffers keep
+     * their array accessible, so builders can write it at once.
+     *
+     * @param buffer the buffer
+     * @return the URL
+     */
+    public static URL of(final ByteBuffer buffer) {
+        return of(buffer, null);
+    }
+
+    /**
+     * Creates an URL of the remaining content of the buffer which keeps given owner reachable as long as the URL is.
+     *
+     * @param buffer the buffer
+     * @param owner  the owner of the buffer, e.g. a store handle, or null
+     * @return the URL
+     */
+    public static URL of(final ByteBuffer buffer, final Object owner) {
+        try {
+            return new URL(null, String.format("%s:%s", SCHEME, IDS.incrementAndGet()), new BufferHandler(buffer.duplicate(), owner));
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the buffer of an URL created with {@link #of(ByteBuffer)}.
+     *
+     * @param url the URL
+     * @return a view of the buffer or null if the URL is not a buffer URL
+     * @throws IOException when opening the URL fails
+     */
+    public static ByteBuffer toBuffer(final URL url) throws IOException {
+        if (!SCHEME.equals(url.getProtocol())) {
+            return null;
+        }
+        final URLConnection connection = url.openConnection();
+        return connection instanceof BufferConnection ? ((BufferConnection) connection).buffer.duplicate() : null;
+    }
+
+    private static final class BufferHandler extends URLStreamHandler {
+
+        private final ByteBuffer buffer;
+
+        @SuppressWarnings("unused")
+        private final Object owner;
+
+        private BufferHandler(final ByteBuffer buffer, final Object owner) {
+            this.buffer = buffer;
+            this.owner = owner;
+        }
+
+        @Override
+        protected URLConnection openConnection(final URL url) {
+            return new BufferConnection(url, buffer);
+        }
+
+    }
+
+    private static final class BufferConnection extends URLConnection {
+
+        private final ByteBuffer buffer;
+
+        private BufferConnection(final URL url, final ByteBuffer buffer) {
+            super(url);
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void connect() { //
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteBufferInputStream(buffer.duplicate());
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return buffer.remaining();
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.nio.file.Paths;
+import java.util.Objects;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Build caches configured by system properties.
+ * <p>
+ * The in-process cache is enabled by {@value #SIZE_PROPERTY}, the persistent cache shared by JVMs by
+ * {@value #DIRECTORY_PROPERTY} and optionally {@value #DIRECTORY_SIZE_PROPERTY}. With both, bundles are looked up
+ * in memory first.
+ */
+public final class BuildCaches {
+
+    public static final String SIZE_PROPERTY = "org.ops4j.pax.tinybundles.cache.size";
+
+    public static final String DIRECTORY_PROPERTY = "org.ops4j.pax.tinybundles.cache.directory";
+
+    public static final String DIRECTORY_SIZE_PROPERTY = "org.ops4j.pax.tinybundles.cache.directory.size";
+
+    public static final long DEFAULT_DIRECTORY_SIZE = 1024L * 1024 * 1024;
+
+    private BuildCaches() { //
+    }
+
+    /**
+     * Creates the build cache as configured by system properties.
+     *
+     * @return the build cache or null if not configured
+     */
+    @Nullable
+    public static BundleCache fromSystemProperties() {
+        final Long size = Long.getLong(SIZE_PROPERTY);
+        final BundleCache memory = Objects.nonNull(size) && size > 0 ? new MemoryBuildCache(size) : null;
+        final String directory = System.getProperty(DIRECTORY_PROPERTY, "").trim();
+        if (directory.isEmpty()) {
+            return memory;
+        }
+        final BundleCache disk = new DiskBuildCache(Paths.get(directory), Long.getLong(DIRECTORY_SIZE_PROPERTY, DEFAULT_DIRECTORY_SIZE));
+        return Objects.isNull(memory) ? disk : new TieredBuildCache(memory, disk);
+    }
+
+}
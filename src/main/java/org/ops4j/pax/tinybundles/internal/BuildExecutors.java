@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executors running the writer threads of builders.
+ * <p>
+ * The default executor uses virtual threads when running on Java 21 or later. On older Java versions it reuses
+ * named daemon threads from a pool, which is unbounded unless the system property {@value #THREADS_PROPERTY} is set.
+ * Note that every stream returned by a builder occupies a thread until it is read completely or closed, so with a
+ * bounded pool more unread streams than threads will block.
+ */
+public final class BuildExecutors {
+
+    public static final String THREADS_PROPERTY = "org.ops4j.pax.tinybundles.threads";
+
+    private static final String THREAD_NAME_PREFIX = "tinybundles-";
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuildExecutors.class);
+
+    private BuildExecutors() { //
+    }
+
+    /**
+     * Gets the shared default executor.
+     *
+     * @return the default executor
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * Gets the shared scheduler for build timeouts, a single daemon thread.
+     *
+     * @return the scheduler
+     */
+    public static ScheduledExecutorService scheduler() {
+        return SchedulerHolder.SCHEDULER;
+    }
+
+    /**
+     * Creates a pool of at most given number of named daemon threads.
+     *
+     * @param threads the maximum number of threads
+     * @return the new executor
+     */
+    public static ExecutorService newBoundedExecutor(final int threads) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new DaemonThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates a pool of named daemon threads, idle threads are reused.
+     *
+     * @return the new executor
+     */
+    public static ExecutorService newCachedExecutor() {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(), new DaemonThreadFactory());
+    }
+
+    private static Executor createDefaultExecutor() {
+        final Integer threads = Integer.getInteger(THREADS_PROPERTY);
+        if (Objects.nonNull(threads) && threads > 0) {
+            LOGGER.debug("Using bounded executor with {} threads", threads);
+            return newBoundedExecutor(threads);
+        }
+        final ExecutorService virtualThreadExecutor = newVirtualThreadExecutor();
+        if (Objects.nonNull(virtualThreadExecutor)) {
+            LOGGER.debug("Using virtual thread executor");
+            return virtualThreadExecutor;
+        }
+        LOGGER.debug("Using cached executor");
+        return newCachedExecutor();
+    }
+
+    /**
+     * Creates an executor starting a new named virtual thread per task (Java 21+).
+     * The executor is created reflectively as TinyBundles is compiled for Java 8.
+     *
+     * @return the virtual thread executor or null when virtual threads are not supported
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Object namedBuilder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 0L);
+            final ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(namedBuilder);
+            final Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static class DefaultExecutorHolder {
+
+        private static final Executor EXECUTOR = createDefaultExecutor();
+
+    }
+
+    private static class SchedulerHolder {
+
+        private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+        private static ScheduledExecutorService createScheduler() {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory());
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+import org.jetbrains.annotations.NotNull;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BundlePublisher;
+import org.ops4j.pax.tinybundles.BundleSubscriber;
+import org.ops4j.pax.tinybundles.BundleSubscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes a bundle written by a builder's synchronous {@link Builder#writeTo(Map, Map, OutputStream)} in chunks.
+ * <p>
+ * The writer thread fills a chunk and signals it to the subscriber when requested, without demand the writer waits.
+ * Signals are serialized as all of them are sent from the writer thread, which is started on the first request after
+ * {@link BundleSubscriber#onSubscribe(BundleSubscription)} returned. The writer runs a synchronous build, so it blocks
+ * a thread of the executor while waiting for demand until the subscription completes, fails or is cancelled.
+ */
+public class BuildPublisher implements BundlePublisher {
+
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(BuildPublisher.class);
+
+    private final Builder builder;
+
+    private final Map<String, URL> resources;
+
+    private final Map<String, String> headers;
+
+    private final Executor executor;
+
+    /**
+     * @param builder   the builder
+     * @param resources the resources, not copied
+     * @param headers   the headers, not copied
+     * @param executor  the executor running the writer threads
+     */
+    public BuildPublisher(final Builder builder, final Map<String, URL> resources, final Map<String, String> headers, final Executor executor) {
+        this.builder = builder;
+        this.resources = resources;
+        this.headers = headers;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(@NotNull final BundleSubscriber subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        final ChunkSubscription subscription = new ChunkSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.subscribed();
+    }
+
+    private void run(final ChunkSubscription subscription) {
+        try {
+            if (Objects.isNull(subscription.failure)) {
+                builder.writeTo(resources, headers, subscription);
+                subscription.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Problem while publishing jar.", e);
+            subscription.fail(e);
+            return;
+        }
+        subscription.complete();
+    }
+
+    /**
+     * The subscription collecting the written jar into chunks.
+     */
+    private class ChunkSubscription extends OutputStream implements BundleSubscription {
+
+        private final BundleSubscriber subscriber;
+
+        private final Object lock = new Object();
+
+        // guarded by lock
+        private long demand;
+
+        // guarded by lock
+        private boolean subscribed;
+
+        // guarded by lock
+        private boolean started;
+
+        private volatile boolean cancelled;
+
+        private volatile Exception failure;
+
+        private ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+
+        ChunkSubscription(final BundleSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void subscribed() {
+            synchronized (lock) {
+                subscribed = true;
+            }
+            startIfRequested();
+        }
+
+        @Override
+        public void request(final long n) {
+            synchronized (lock) {
+                if (n <= 0) {
+                    if (Objects.isNull(failure)) {
+                        failure = new IllegalArgumentException(String.format("Requested %s chunks, must be positive.", n));
+                    }
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+                lock.notifyAll();
+            }
+            startIfRequested();
+        }
+
+        private void startIfRequested() {
+            synchronized (lock) {
+                if (!subscribed || started || cancelled || (demand == 0 && Objects.isNull(failure))) {
+                    return;
+                }
+                started = true;
+            }
+            executor.execute(() -> run(this));
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (lock) {
+                cancelled = true;
+                lock.notifyAll();
+            }
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (!chunk.hasRemaining()) {
+                signal();
+            }
+            chunk.put((byte) b);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            int written = 0;
+            while (written < length) {
+                if (!chunk.hasRemaining()) {
+                    signal();
+                }
+                final int n = Math.min(length - written, chunk.remaining());
+                chunk.put(bytes, offset + written, n);
+                written += n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (chunk.position() > 0) {
+                signal();
+            }
+        }
+
+        /**
+         * Signals the filled chunk when requested, waiting for demand.
+         */
+        private void signal() throws IOException {
+            synchronized (lock) {
+                while (demand == 0 && !cancelled && Objects.isNull(failure)) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Publishing jar interrupted.", e);
+                    }
+                }
+                if (cancelled) {
+                    throw new IOException("Subscription cancelled.");
+                }
+                if (Objects.nonNull(failure)) {
+                    throw new IOException("Subscription failed.", failure);
+                }
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+            }
+            ((Buffer) chunk).flip();
+            final ByteBuffer next = chunk;
+            chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            subscriber.onNext(next);
+        }
+
+        void fail(final Exception e) {
+            if (cancelled) {
+                return;
+            }
+            subscriber.onError(Objects.isNull(failure) ? e : failure);
+        }
+
+        void complete() {
+            if (Objects.isNull(failure) && !cancelled) {
+                subscriber.onComplete();
+            } else {
+                fail(new IOException("Subscription failed."));
+            }
+        }
+
+    }
+
+}
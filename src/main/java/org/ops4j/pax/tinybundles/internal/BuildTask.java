@@ -0,0 +1,336 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jetbrains.annotations.NotNull;
+import org.ops4j.pax.tinybundles.BuildHandle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A build writing a jar into a {@link RingBufferPipe} on a writer thread.
+ * <p>
+ * Resources opened by the build are tracked, so cancelling the build closes them in addition to interrupting the
+ * writer thread and failing the pipe. Closing the stream of a build not started yet cancels the build, as does closing
+ * the stream of a build handle before reading it completely. Otherwise closing the stream early closes the pipe and
+ * the writer fails on its next write.
+ */
+public class BuildTask implements BuildHandle {
+
+    /**
+     * The work of a build.
+     */
+    public interface Body {
+
+        /**
+         * Writes the jar into the pipe, failing the pipe on errors.
+         *
+         * @param task the build task to track opened resources with
+         * @param pipe the pipe to write the jar to
+         */
+        void run(BuildTask task, RingBufferPipe pipe);
+
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(BuildTask.class);
+
+    private final RingBufferPipe pipe;
+
+    private final Body body;
+
+    private final Executor executor;
+
+    private final InputStream inputStream;
+
+    private final Object lock = new Object();
+
+    // guarded by lock
+    private final Set<AutoCloseable> resources = new LinkedHashSet<>();
+
+    // guarded by lock
+    private Thread writer;
+
+    // guarded by lock
+    private boolean started;
+
+    // guarded by lock
+    private ScheduledFuture<?> timeout;
+
+    private volatile boolean cancelled;
+
+    private volatile boolean done;
+
+    private volatile boolean cancelOnClose;
+
+    /**
+     * @param pipe     the pipe the jar is written to
+     * @param body     the work of the build
+     * @param executor the executor running the writer thread
+     */
+    public BuildTask(final RingBufferPipe pipe, final Body body, final Executor executor) {
+        this.pipe = pipe;
+        this.body = body;
+        this.executor = executor;
+        this.inputStream = new TaskInputStream(pipe.getInputStream());
+    }
+
+    /**
+     * Starts the build unless started or cancelled before.
+     */
+    public void start() {
+        synchronized (lock) {
+            if (started || cancelled) {
+                return;
+            }
+            started = true;
+        }
+        executor.execute(this::run);
+    }
+
+    /**
+     * Cancels the build when not done within given time.
+     *
+     * @param time the maximum time to build
+     * @param unit the time unit
+     */
+    public void timeout(final long time, final TimeUnit unit) {
+        if (time <= 0) {
+            return;
+        }
+        final ScheduledFuture<?> future = BuildExecutors.scheduler().schedule(() -> {
+            logger.debug("Build timed out after {} {}", time, unit);
+            cancel(new TimeoutException(String.format("Build timed out after %s %s", time, unit)));
+        }, time, unit);
+        synchronized (lock) {
+            timeout = future;
+        }
+        if (done) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Cancels the build when its stream is closed before it was read completely, used for build handles.
+     */
+    public void cancelOnClose() {
+        cancelOnClose = true;
+    }
+
+    private void run() {
+        try {
+            synchronized (lock) {
+                if (cancelled) {
+                    // cancelled after start, but before running: the cleanup below is still due
+                    return;
+                }
+                writer = Thread.currentThread();
+            }
+            body.run(this, pipe);
+        } finally {
+            final List<AutoCloseable> remaining;
+            synchronized (lock) {
+                writer = null;
+                done = true;
+                remaining = new ArrayList<>(resources);
+                resources.clear();
+                if (Objects.nonNull(timeout)) {
+                    timeout.cancel(false);
+                }
+            }
+            remaining.forEach(this::closeQuietly);
+            // the writer cannot be interrupted anymore, clear a pending interrupt before the thread is reused
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Tracks a resource opened by the build, it is closed when the build is cancelled or done.
+     * A resource opened after the build was cancelled is closed immediately.
+     *
+     * @param resource the resource
+     * @throws IOException when the build was cancelled
+     */
+    public void track(final AutoCloseable resource) throws IOException {
+        synchronized (lock) {
+            if (!cancelled) {
+                resources.add(resource);
+                return;
+            }
+        }
+        closeQuietly(resource);
+        throw new IOException("Build cancelled.");
+    }
+
+    /**
+     * Stops tracking a resource closed by the build.
+     *
+     * @param resource the resource
+     */
+    public void untrack(final AutoCloseable resource) {
+        synchronized (lock) {
+            resources.remove(resource);
+        }
+    }
+
+    /**
+     * Tracks a stream opened by the build, the returned stream stops tracking when closed.
+     *
+     * @param stream the stream
+     * @return the tracked stream
+     * @throws IOException when the build was cancelled
+     */
+    public InputStream track(final InputStream stream) throws IOException {
+        track((AutoCloseable) stream);
+        return new FilterInputStream(stream) {
+            @Override
+            public void close() throws IOException {
+                untrack(stream);
+                super.close();
+            }
+        };
+    }
+
+    @Override
+    @NotNull
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public void cancel() {
+        cancel(new CancellationException("Build cancelled."));
+    }
+
+    private void cancel(final Exception cause) {
+        final List<AutoCloseable> opened;
+        synchronized (lock) {
+            if (done || cancelled) {
+                return;
+            }
+            cancelled = true;
+            if (!started) {
+                done = true;
+            }
+            opened = new ArrayList<>(resources);
+            resources.clear();
+            // fail the pipe before interrupting, so the reader gets the cause and not the interruption of the writer
+            pipe.fail(cause);
+            if (Objects.nonNull(writer)) {
+                writer.interrupt();
+            }
+            if (Objects.nonNull(timeout)) {
+                timeout.cancel(false);
+            }
+        }
+        logger.debug("Cancelling build", cause);
+        opened.forEach(this::closeQuietly);
+    }
+
+    private boolean isStarted() {
+        synchronized (lock) {
+            return started;
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            // nothing to do
+        }
+    }
+
+    private void closeQuietly(final AutoCloseable resource) {
+        try {
+            resource.close();
+        } catch (Exception e) {
+            logger.debug("Problem closing {} of build.", resource, e);
+        }
+    }
+
+    /**
+     * Starts the build on first read and cancels it when closed unstarted or, for handles, before the jar was read
+     * completely.
+     */
+    private class TaskInputStream extends FilterInputStream {
+
+        private volatile boolean completed;
+
+        TaskInputStream(final InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            start();
+            final int b = super.read();
+            completed = b == -1;
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            start();
+            final int n = super.read(bytes, offset, length);
+            completed = n == -1;
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            start();
+            return super.skip(n);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!completed && (cancelOnClose || !isStarted())) {
+                cancel();
+            }
+            super.close();
+        }
+
+    }
+
+}
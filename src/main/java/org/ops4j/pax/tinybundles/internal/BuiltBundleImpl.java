@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BuiltBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A built bundle held in memory or, when larger than the spill threshold, in a temporary file.
+ */
+public class BuiltBundleImpl implements BuiltBundle {
+
+    public static final int DEFAULT_SPILL_THRESHOLD = 1024 * 1024;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuiltBundleImpl.class);
+
+    private final byte[] bytes;
+
+    private final long size;
+
+    private final String sha256;
+
+    private Path path;
+
+    private BuiltBundleImpl(final byte[] bytes, final Path path, final long size, final String sha256) {
+        this.bytes = bytes;
+        this.path = path;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+
+    /**
+     * Builds the bundle with given builder on the calling thread.
+     *
+     * @param builder        the builder
+     * @param resources      the resources of the bundle
+     * @param headers        the headers of the bundle
+     * @param spillThreshold the size in bytes above which the bundle is written to a temporary file
+     * @return the built bundle
+     * @throws IOException when building fails
+     */
+    public static BuiltBundleImpl build(final Builder builder, final Map<String, URL> resources, final Map<String, String> headers, final int spillThreshold) throws IOException {
+        final MessageDigest digest = Digests.sha256();
+        final SpillOutputStream outputStream = new SpillOutputStream(spillThreshold);
+        try {
+            try (OutputStream target = outputStream) {
+                builder.writeTo(resources, headers, new DigestOutputStream(target, digest));
+            }
+            final String sha256 = Digests.toHex(digest.digest());
+            if (Objects.isNull(outputStream.file)) {
+                return new BuiltBundleImpl(outputStream.buffer.toByteArray(), null, outputStream.size, sha256);
+            }
+            return new BuiltBundleImpl(null, outputStream.file, outputStream.size, sha256);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(outputStream.file);
+            throw e;
+        }
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    @NotNull
+    public String getSha256() {
+        return sha256;
+    }
+
+    @Override
+    @NotNull
+    public synchronized ByteBuffer toByteBuffer() throws IOException {
+        if (Objects.nonNull(bytes)) {
+            return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Bundle too large for a single buffer.");
+        }
+        // read into the heap, a mapping would keep the file from being deleted on close on some platforms
+        final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        try (FileChannel channel = FileChannel.open(existingPath(), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Built bundle file is truncated.");
+                }
+            }
+        }
+        ((Buffer) buffer).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    @Override
+    @NotNull
+    public synchronized Path toPath() throws IOException {
+        if (Objects.isNull(path)) {
+            final Path file = Files.createTempFile("tinybundles-", ".jar");
+            try {
+                Files.write(file, bytes);
+            } catch (IOException e) {
+                deleteQuietly(file);
+                throw e;
+            }
+            path = file;
+        }
+        return path;
+    }
+
+    @Override
+    @NotNull
+    public synchronized InputStream openStream() throws IOException {
+        if (Objects.nonNull(bytes)) {
+            return new ByteArrayInputStream(bytes);
+        }
+        return Files.newInputStream(existingPath());
+    }
+
+    private Path existingPath() throws IOException {
+        if (Objects.isNull(path)) {
+            throw new IOException("Built bundle is closed.");
+        }
+        return path;
+    }
+
+    @Override
+    public synchronized void close() {
+        deleteQuietly(path);
+        path = null;
+    }
+
+    private static void deleteQuietly(final Path file) {
+        if (Objects.isNull(file)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete built bundle {}", file, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BuiltBundle{size=%s, sha256=%s}", size, sha256);
+    }
+
+    /**
+     * Buffers written bytes in memory until the threshold is exceeded, then writes all bytes to a temporary file.
+     */
+    private static final class SpillOutputStream extends OutputStream {
+
+        private final int threshold;
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private OutputStream fileOutputStream;
+
+        private Path file;
+
+        private long size;
+
+        private SpillOutputStream(final int threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (Objects.isNull(fileOutputStream) && size + len > threshold) {
+                file = Files.createTempFile("tinybundles-", ".jar");
+                fileOutputStream = new BufferedOutputStream(Files.newOutputStream(file), ResourceTransfer.BUFFER_SIZE);
+                buffer.writeTo(fileOutputStream);
+                buffer.reset();
+            }
+            if (Objects.isNull(fileOutputStream)) {
+                buffer.write(b, off, len);
+            } else {
+                fileOutputStream.write(b, off, len);
+            }
+            size += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (Objects.nonNull(fileOutputStream)) {
+                fileOutputStream.close();
+            }
+        }
+
+    }
+
+}
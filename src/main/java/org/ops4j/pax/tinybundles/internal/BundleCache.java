@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jetbrains.annotations.Nullable;
+import org.ops4j.pax.tinybundles.BuildCache;
+
+/**
+ * A {@link BuildCache} storing built bundles by key.
+ */
+public interface BundleCache extends BuildCache {
+
+    /**
+     * Gets a cached bundle and counts a hit or miss.
+     *
+     * @param key the key of the bundle
+     * @return a stream of the cached bundle or null if not cached
+     * @throws IOException when reading the cached bundle fails
+     */
+    @Nullable
+    InputStream get(String key) throws IOException;
+
+    /**
+     * Caches a bundle.
+     *
+     * @param key    the key of the bundle
+     * @param bundle the built bundle
+     * @throws IOException when storing the bundle fails
+     */
+    void put(String key, byte[] bundle) throws IOException;
+
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.jar.Manifest;
+
+import aQute.bnd.osgi.Constants;
+import aQute.bnd.osgi.Processor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.ops4j.pax.tinybundles.BuildHandle;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.Compression;
+
+/**
+ * A builder returning bundles from a {@link BundleCache} when built with identical input before.
+ * <p>
+ * The key is a SHA-256 digest of the builder type, the paths and content digests of all resources and the headers.
+ * Files on bnd's {@code -classpath} are included by size and last modification time.
+ * Bundles are built completely before they are returned, so the returned streams do not occupy a writer thread.
+ * Build handles are delegated on a miss, the bundle is cached once its stream was read completely.
+ * With {@link BuilderOptions#isLazyStart() lazy start} the cache is looked up on the first read of the returned
+ * stream. Bundles which would not be built identically again (see {@code cacheable}) are delegated uncached.
+ */
+public class CachingBuilder implements Builder {
+
+    private final Builder builder;
+
+    private final String type;
+
+    private final BundleCache cache;
+
+    private final boolean lazyStart;
+
+    private final Predicate<Map<String, String>> cacheable;
+
+    /**
+     * @param builder   the builder building bundles not cached
+     * @param type      the type of the builder, e.g. {@code raw}
+     * @param options   the options of the builder
+     * @param cache     the cache
+     * @param cacheable tests if bundles with given headers are built identically again, e.g. not with a generated
+     *                  symbolic name
+     */
+    public CachingBuilder(final Builder builder, final String type, final BuilderOptions options, final BundleCache cache, final Predicate<Map<String, String>> cacheable) {
+        this.builder = builder;
+        this.type = type(type, options);
+        this.cache = cache;
+        this.lazyStart = options.isLazyStart();
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * Describes the builder type with all options affecting the built bundles, each option is listed explicitly
+     * so the key does not depend on {@link BuilderOptions#toString()}.
+     *
+     * @param type    the type of the builder
+     * @param options the options of the builder
+     * @return the type including all options
+     */
+    static String type(final String type, final BuilderOptions options) {
+        final Compression compression = options.getCompression();
+        return String.format("%s level=%s stored=%s storeCompressedContent=%s parallelCompression=%s reproducible=%s fastAnalysis=%s passthrough=%s",
+            type, compression.getLevel(), compression.isStored(), compression.isStoreCompressedContent(),
+            options.isParallelCompression(), options.isReproducible(), options.isFastAnalysis(), options.isPassthrough());
+    }
+
+    @Override
+    @NotNull
+    public InputStream build(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers) {
+        if (!cacheable.test(headers)) {
+            return builder.build(resources, headers);
+        }
+        if (lazyStart) {
+            return new LazyInputStream(new HashMap<>(resources), new HashMap<>(headers));
+        }
+        try {
+            return open(resources, headers);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void writeTo(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, @NotNull final OutputStream target) throws IOException {
+        if (!cacheable.test(headers)) {
+            builder.writeTo(resources, headers, target);
+            return;
+        }
+        final String key = key(resources, headers);
+        try (InputStream cached = cache.get(key)) {
+            if (Objects.nonNull(cached)) {
+                ResourceTransfer.transfer(cached, target);
+                return;
+            }
+        }
+        target.write(buildAndCache(key, resources, headers));
+    }
+
+    @Override
+    @NotNull
+    public BuildHandle buildHandle(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, final long timeout, @NotNull final TimeUnit unit) {
+        if (!cacheable.test(headers)) {
+            return builder.buildHandle(resources, headers, timeout, unit);
+        }
+        try {
+            final String key = key(resources, headers);
+            final InputStream cached = cache.get(key);
+            if (Objects.nonNull(cached)) {
+                return new CachedBuildHandle(cached);
+            }
+            return new CachingBuildHandle(key, builder.buildHandle(resources, headers, timeout, unit));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Manifests are not cached, the calculation is delegated.
+     */
+    @Override
+    @NotNull
+    public Manifest manifest(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers) throws IOException {
+        return builder.manifest(resources, headers);
+    }
+
+    private InputStream open(final Map<String, URL> resources, final Map<String, String> headers) throws IOException {
+        final String key = key(resources, headers);
+        final InputStream cached = cache.get(key);
+        if (Objects.nonNull(cached)) {
+            return cached;
+        }
+        return new ByteArrayInputStream(buildAndCache(key, resources, headers));
+    }
+
+    private byte[] buildAndCache(final String key, final Map<String, URL> resources, final Map<String, String> headers) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        builder.writeTo(resources, headers, outputStream);
+        final byte[] bundle = outputStream.toByteArray();
+        cache.put(key, bundle);
+        return bundle;
+    }
+
+    /**
+     * Calculates the cache key for given resources and headers.
+     *
+     * @param resources the resources
+     * @param headers   the headers
+     * @return the hex encoded key
+     * @throws IOException when reading a resource fails
+     */
+    public String key(final Map<String, URL> resources, final Map<String, String> headers) throws IOException {
+        final MessageDigest digest = Digests.sha256();
+        Digests.update(digest, type);
+        try (Closeable sources = ZipSource.lease(resources.values())) {
+            Digests.update(digest, resources, headers);
+        }
+        updateClasspath(digest, headers.get(Constants.CLASSPATH));
+        return Digests.toHex(digest.digest());
+    }
+
+    /**
+     * Updates the digest with size and last modification time of each file given with bnd's {@code -classpath}
+     * instruction, the instruction itself only names the files.
+     *
+     * @param digest    the digest
+     * @param classpath the value of the instruction or {@code null}
+     */
+    private static void updateClasspath(final MessageDigest digest, @Nullable final String classpath) {
+        if (Objects.isNull(classpath)) {
+            return;
+        }
+        for (final String entry : Processor.split(classpath)) {
+            final File file = new File(entry);
+            Digests.update(digest, String.format("%s %s %s", file.getAbsolutePath(), file.length(), file.lastModified()));
+        }
+    }
+
+    /**
+     * Stream looking up or building the bundle on the first read.
+     */
+    private final class LazyInputStream extends InputStream {
+
+        private final Map<String, URL> resources;
+
+        private final Map<String, String> headers;
+
+        private InputStream delegate;
+
+        private boolean closed;
+
+        private LazyInputStream(final Map<String, URL> resources, final Map<String, String> headers) {
+            this.resources = resources;
+            this.headers = headers;
+        }
+
+        private InputStream delegate() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (Objects.isNull(delegate)) {
+                delegate = open(resources, headers);
+            }
+            return delegate;
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            return delegate().read();
+        }
+
+        @Override
+        public synchronized int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            return delegate().read(bytes, offset, length);
+        }
+
+        @Override
+        public synchronized long skip(final long n) throws IOException {
+            return delegate().skip(n);
+        }
+
+        @Override
+        public synchronized int available() throws IOException {
+            return Objects.isNull(delegate) || closed ? 0 : delegate.available();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            closed = true;
+            if (Objects.nonNull(delegate)) {
+                delegate.close();
+            }
+        }
+
+    }
+
+    /**
+     * Handle of a cached bundle, which is done already.
+     */
+    private static final class CachedBuildHandle implements BuildHandle {
+
+        private final InputStream inputStream;
+
+        private CachedBuildHandle(final InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        @NotNull
+        public InputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public void cancel() {
+            close();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+
+    }
+
+    /**
+     * Handle of a delegated build copying the bundle while it is read, the copy is cached when the stream was read
+     * completely.
+     */
+    private final class CachingBuildHandle implements BuildHandle {
+
+        private final String key;
+
+        private final BuildHandle handle;
+
+        private final InputStream inputStream;
+
+        private CachingBuildHandle(final String key, final BuildHandle handle) {
+            this.key = key;
+            this.handle = handle;
+            this.inputStream = new CachingInputStream(handle.getInputStream());
+        }
+
+        @Override
+        @NotNull
+        public InputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public void cancel() {
+            handle.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return handle.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return handle.isDone();
+        }
+
+        @Override
+        public void close() {
+            handle.close();
+        }
+
+        private final class CachingInputStream extends FilterInputStream {
+
+            private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+            private CachingInputStream(final InputStream inputStream) {
+                super(inputStream);
+            }
+
+            @Override
+            public int read() throws IOException {
+                final int b = super.read();
+                if (b == -1) {
+                    complete();
+                } else if (Objects.nonNull(copy)) {
+                    copy.write(b);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+                final int n = super.read(bytes, offset, length);
+                if (n == -1) {
+                    complete();
+                } else if (Objects.nonNull(copy)) {
+                    copy.write(bytes, offset, n);
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(final long n) throws IOException {
+                // skipped bytes are not copied, the bundle is not cached then
+                copy = null;
+                return super.skip(n);
+            }
+
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+
+            private void complete() throws IOException {
+                if (Objects.nonNull(copy)) {
+                    cache.put(key, copy.toByteArray());
+                    copy = null;
+                }
+            }
+
+        }
+
+    }
+
+}
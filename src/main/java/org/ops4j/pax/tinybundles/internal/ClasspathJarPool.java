@@ -0,0 +1,211 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import aQute.bnd.osgi.Jar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of opened and indexed bnd classpath {@link Jar}s shared by concurrent builds.
+ * <p>
+ * Jars are opened once, bnd keeps the zip file open and reads entries on demand, so builds referencing the same
+ * classpath jars share one index instead of opening and indexing the jars again. Leased jars are reference-counted.
+ * A jar whose file changed is opened again and the stale jar is closed when its last lease is closed. Unused jars
+ * stay open for reuse, when the pool holds more than the maximum number of jars, the least recently used unused jars
+ * are closed.
+ */
+public class ClasspathJarPool implements Closeable {
+
+    public static final int DEFAULT_MAX_JARS = 64;
+
+    private final Logger logger = LoggerFactory.getLogger(ClasspathJarPool.class);
+
+    private final int maxJars;
+
+    private final Map<String, PooledJar> jars = new LinkedHashMap<>(16, 0.75f, true);
+
+    private boolean closed;
+
+    public ClasspathJarPool() {
+        this(DEFAULT_MAX_JARS);
+    }
+
+    /**
+     * @param maxJars the maximum number of jars held open while not leased
+     */
+    public ClasspathJarPool(final int maxJars) {
+        this.maxJars = maxJars;
+    }
+
+    /**
+     * Leases the jar for given file, opening it when not pooled or changed.
+     *
+     * @param file the jar file
+     * @return the lease of the jar, to be closed when the jar is not used anymore
+     * @throws IOException when opening the jar fails
+     */
+    public synchronized Lease acquire(final File file) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Classpath jar pool is closed.");
+        }
+        final File canonicalFile = file.getCanonicalFile();
+        final String key = canonicalFile.getPath();
+        PooledJar pooled = jars.get(key);
+        if (Objects.nonNull(pooled) && !pooled.isCurrent(canonicalFile)) {
+            logger.debug("Classpath jar {} changed", key);
+            jars.remove(key);
+            pooled.stale = true;
+            pooled.closeIfUnused();
+            pooled = null;
+        }
+        if (Objects.isNull(pooled)) {
+            logger.debug("Opening classpath jar {}", key);
+            pooled = new PooledJar(canonicalFile);
+            jars.put(key, pooled);
+        }
+        pooled.references++;
+        evict();
+        return new Lease(pooled);
+    }
+
+    private void evict() {
+        final Iterator<PooledJar> iterator = jars.values().iterator();
+        int unused = (int) jars.values().stream().filter(pooled -> pooled.references == 0).count();
+        while (unused > maxJars && iterator.hasNext()) {
+            final PooledJar pooled = iterator.next();
+            if (pooled.references == 0) {
+                iterator.remove();
+                pooled.jar.close();
+                unused--;
+            }
+        }
+    }
+
+    private synchronized void release(final PooledJar pooled) {
+        pooled.references--;
+        pooled.closeIfUnused();
+        evict();
+    }
+
+    /**
+     * Gets the number of pooled jars.
+     *
+     * @return the number of pooled jars
+     */
+    public synchronized int size() {
+        return jars.size();
+    }
+
+    /**
+     * Closes all unused jars, leased jars are closed when their last lease is closed.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        final List<PooledJar> pooled = new ArrayList<>(jars.values());
+        jars.clear();
+        for (final PooledJar jar : pooled) {
+            jar.stale = true;
+            jar.closeIfUnused();
+        }
+    }
+
+    private static final class PooledJar {
+
+        private final Jar jar;
+
+        private final long lastModified;
+
+        private final long length;
+
+        private int references;
+
+        private boolean stale;
+
+        private PooledJar(final File file) throws IOException {
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.jar = new Jar(file);
+            try {
+                // read the manifest eagerly, it is parsed lazily and not thread-safe
+                jar.getManifest();
+            } catch (Exception e) {
+                jar.close();
+                throw new IOException(String.format("Unable to read manifest of classpath jar %s", file), e);
+            }
+        }
+
+        private boolean isCurrent(final File file) {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+
+        private void closeIfUnused() {
+            if (stale && references == 0) {
+                jar.close();
+            }
+        }
+
+    }
+
+    /**
+     * A lease of a pooled jar.
+     */
+    public final class Lease implements Closeable {
+
+        private final PooledJar pooled;
+
+        private boolean released;
+
+        private Lease(final PooledJar pooled) {
+            this.pooled = pooled;
+        }
+
+        /**
+         * Gets the leased jar, the jar must not be modified or closed.
+         *
+         * @return the leased jar
+         */
+        public Jar getJar() {
+            return pooled.jar;
+        }
+
+        @Override
+        public void close() {
+            synchronized (ClasspathJarPool.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            release(pooled);
+        }
+
+    }
+
+}
@@ -1,37 +0,0 @@
-/*
- * Copyright 2014 Freeman Fang.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- * http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
- * implied.
- *
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-package org.ops4j.pax.tinybundles.internal;
-
-import java.io.IOException;
-import java.io.PipedInputStream;
-
-public class CloseAwarePipedInputStream extends PipedInputStream {
-
-    private boolean closed = false;
-
-    @Override
-    public void close() throws IOException {
-        closed = true;
-        super.close();
-    }
-
-    public boolean isClosed() {
-        return closed;
-    }
-
-}
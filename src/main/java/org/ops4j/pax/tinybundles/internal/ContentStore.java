@@ -0,0 +1,308 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.ops4j.store.Handle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A content-addressed store in a directory, identical content is stored once.
+ * <p>
+ * Entries are files named by the SHA-256 digest of their content in two levels of shard directories
+ * ({@code ab/cd/abcd…}). Content is written to a temporary file while digesting and moved into place unless stored
+ * already. Handles are reference-counted: a handle, and an URL obtained with {@link #getUrl(Handle)}, references its
+ * entry until it is garbage collected. When the size of all entries exceeds the maximum size, the least recently used
+ * entries without references are deleted. Referenced entries are never deleted, so the size may exceed the maximum
+ * temporarily.
+ * <p>
+ * On startup existing entries are indexed without references, temporary files of interrupted writes and
+ * digest-named files in the shard directories of other digests are deleted. Other files are logged and left untouched.
+ * The store must not be shared by concurrent JVMs.
+ */
+public class ContentStore implements UrlStore {
+
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{64}");
+
+    private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+
+    private static final String TEMP_PREFIX = "store-";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Logger logger = LoggerFactory.getLogger(ContentStore.class);
+
+    private final Path directory;
+
+    private final long maxSize;
+
+    // guarded by this, in access order for LRU eviction
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // guarded by this, keeps the references of live handles reachable
+    private final Map<Reference<StoreLease>, String> leases = new HashMap<>();
+
+    private final ReferenceQueue<StoreLease> released = new ReferenceQueue<>();
+
+    // guarded by this
+    private long size;
+
+    /**
+     * @param directory the directory of the store, created if missing
+     * @param maxSize   the maximum size in bytes of all entries
+     * @throws IOException when indexing the directory fails
+     */
+    public ContentStore(final Path directory, final long maxSize) throws IOException {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        Files.createDirectories(directory);
+        index();
+    }
+
+    /**
+     * Indexes existing entries and deletes orphaned files, entries are ordered by modification time.
+     * Files not created by this store are left untouched.
+     */
+    private synchronized void index() throws IOException {
+        final List<Path> files;
+        try (Stream<Path> stream = Files.walk(directory, 3)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        final List<Path> valid = new ArrayList<>();
+        for (final Path file : files) {
+            if (isEntry(file)) {
+                valid.add(file);
+            } else if (isTemp(file) || isMisplaced(file)) {
+                // temporary files of interrupted writes and misplaced entries are created by this store only
+                logger.debug("Deleting orphaned file {}", file);
+                Files.deleteIfExists(file);
+            } else {
+                logger.warn("Skipping unknown file {} in store {}", file, directory);
+            }
+        }
+        final Map<Path, Long> modified = new HashMap<>();
+        for (final Path file : valid) {
+            modified.put(file, Files.getLastModifiedTime(file).toMillis());
+        }
+        valid.sort((a, b) -> Long.compare(modified.get(a), modified.get(b)));
+        for (final Path file : valid) {
+            final long length = Files.size(file);
+            entries.put(file.getFileName().toString(), new Entry(length));
+            size += length;
+        }
+        logger.debug("Indexed {} entries with {} bytes in {}", entries.size(), size, directory);
+        evict();
+    }
+
+    private boolean isTemp(final Path file) {
+        final String name = file.getFileName().toString();
+        return directory.equals(file.getParent()) && name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX);
+    }
+
+    /**
+     * Whether the file is named by a digest in a shard directory of another digest.
+     */
+    private boolean isMisplaced(final Path file) {
+        final Path relative = directory.relativize(file);
+        return relative.getNameCount() == 3 && DIGEST.matcher(file.getFileName().toString()).matches()
+            && SHARD.matcher(relative.getName(0).toString()).matches() && SHARD.matcher(relative.getName(1).toString()).matches();
+    }
+
+    private boolean isEntry(final Path file) {
+        final String name = file.getFileName().toString();
+        return DIGEST.matcher(name).matches() && file.equals(path(name));
+    }
+
+    private Path path(final String digest) {
+        return directory.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    @Override
+    public Handle store(final InputStream inputStream) throws IOException {
+        final Path temp = Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+        try {
+            final MessageDigest digest = Digests.sha256();
+            final long length;
+            try (OutputStream outputStream = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                length = ResourceTransfer.transfer(inputStream, outputStream);
+            }
+            final String id = Digests.toHex(digest.digest());
+            synchronized (this) {
+                expunge();
+                Entry entry = entries.get(id);
+                if (Objects.isNull(entry)) {
+                    final Path path = path(id);
+                    Files.createDirectories(path.getParent());
+                    move(temp, path);
+                    entry = new Entry(length);
+                    entries.put(id, entry);
+                    size += length;
+                } else {
+                    logger.debug("Content {} stored already", id);
+                }
+                final StoreLease lease = lease(id, entry);
+                evict();
+                return lease;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private StoreLease lease(final String id, final Entry entry) {
+        final StoreLease lease = new StoreLease(id);
+        entry.references++;
+        leases.put(new WeakReference<>(lease, released), id);
+        return lease;
+    }
+
+    private static void move(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Releases the references of garbage collected handles.
+     */
+    private void expunge() {
+        Reference<? extends StoreLease> reference;
+        while (Objects.nonNull(reference = released.poll())) {
+            final String id = leases.remove(reference);
+            final Entry entry = Objects.isNull(id) ? null : entries.get(id);
+            if (Objects.nonNull(entry)) {
+                entry.references--;
+            }
+        }
+    }
+
+    /**
+     * Deletes least recently used entries without references while the size exceeds the maximum size.
+     */
+    private void evict() {
+        final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            final Map.Entry<String, Entry> next = iterator.next();
+            if (next.getValue().references > 0) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(path(next.getKey()));
+                iterator.remove();
+                size -= next.getValue().length;
+                logger.debug("Evicted content {}", next.getKey());
+            } catch (IOException e) {
+                logger.warn("Unable to delete content {}", next.getKey(), e);
+            }
+        }
+    }
+
+    @Override
+    public InputStream load(final Handle handle) throws IOException {
+        return Files.newInputStream(locate(handle.getIdentification()));
+    }
+
+    @Override
+    public URI getLocation(final Handle handle) throws IOException {
+        return locate(handle.getIdentification()).toUri();
+    }
+
+    /**
+     * Gets a file URL of the entry which references the entry as long as the URL is reachable.
+     */
+    @Override
+    public URL getUrl(final Handle handle) throws IOException {
+        final String id = handle.getIdentification();
+        final Path path;
+        final StoreLease lease;
+        synchronized (this) {
+            path = locate(id);
+            lease = handle instanceof StoreLease ? (StoreLease) handle : lease(id, entries.get(id));
+        }
+        return lease.toUrl(path);
+    }
+
+    private synchronized Path locate(final String id) throws IOException {
+        expunge();
+        if (Objects.isNull(entries.get(id))) {
+            throw new IOException(String.format("Unknown store entry %s", id));
+        }
+        return path(id);
+    }
+
+    /**
+     * Gets the size in bytes of all entries.
+     *
+     * @return the size of all entries
+     */
+    public synchronized long getSize() {
+        expunge();
+        return size;
+    }
+
+    /**
+     * Gets the digests of all entries.
+     *
+     * @return the digests of all entries
+     */
+    public synchronized List<String> getEntries() {
+        expunge();
+        return Collections.unmodifiableList(new ArrayList<>(entries.keySet()));
+    }
+
+    private static final class Entry {
+
+        private final long length;
+
+        private int references;
+
+        private Entry(final long length) {
+            this.length = length;
+        }
+
+    }
+
+}
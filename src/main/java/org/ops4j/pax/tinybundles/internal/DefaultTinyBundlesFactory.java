@@ -19,14 +19,24 @@ package org.ops4j.pax.tinybundles.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.ops4j.pax.tinybundles.BuildCache;
 import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BuilderOptions;
 import org.ops4j.pax.tinybundles.TinyBundle;
 import org.ops4j.pax.tinybundles.TinyBundlesFactory;
 import org.ops4j.store.Store;
-import org.ops4j.store.StoreFactory;
+import org.osgi.framework.Constants;
 
 /**
  * The default TinyBundlesFactory service.
@@ -35,13 +45,48 @@ public class DefaultTinyBundlesFactory implements TinyBundlesFactory {
 
     private Store<InputStream> store;
 
-    public DefaultTinyBundlesFactory() { //
+    private final Executor executor;
+
+    private final int pipeCapacity;
+
+    private final BundleCache cache;
+
+    private final ClasspathJarPool classpathJars = new ClasspathJarPool();
+
+    public DefaultTinyBundlesFactory() {
+        this(BuildExecutors.defaultExecutor());
+    }
+
+    /**
+     * @param executor the executor running the writer threads of all builders created by this factory
+     */
+    public DefaultTinyBundlesFactory(final Executor executor) {
+        this(executor, RingBufferPipe.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param executor     the executor running the writer threads of all builders created by this factory
+     * @param pipeCapacity the capacity in bytes of the pipes between writer threads and consumers
+     */
+    public DefaultTinyBundlesFactory(final Executor executor, final int pipeCapacity) {
+        this(executor, pipeCapacity, BuildCaches.fromSystemProperties());
+    }
+
+    /**
+     * @param executor     the executor running the writer threads of all builders created by this factory
+     * @param pipeCapacity the capacity in bytes of the pipes between writer threads and consumers
+     * @param cache        the cache for bundles built by all builders created by this factory, null for no caching
+     */
+    public DefaultTinyBundlesFactory(final Executor executor, final int pipeCapacity, @Nullable final BundleCache cache) {
+        this.executor = executor;
+        this.pipeCapacity = pipeCapacity;
+        this.cache = cache;
     }
 
     private synchronized Store<InputStream> defaultStore() {
         try {
             if (Objects.isNull(store)) {
-                store = StoreFactory.anonymousStore();
+                store = Stores.fromSystemProperties();
             }
             return store;
         } catch (IOException e) {
@@ -52,25 +97,70 @@ public class DefaultTinyBundlesFactory implements TinyBundlesFactory {
     @Override
     @NotNull
     public TinyBundle bundle() {
-        return new TinyBundleImpl(defaultStore());
+        return new TinyBundleImpl(defaultStore(), this::bndBuilder);
     }
 
     @Override
     @NotNull
     public TinyBundle bundle(@NotNull final Store<InputStream> store) {
-        return new TinyBundleImpl(store);
+        return new TinyBundleImpl(store, this::bndBuilder);
+    }
+
+    @Override
+    @NotNull
+    public Store<InputStream> tieredStore(final long memoryBudget, final boolean direct) {
+        return new TieredStore(memoryBudget, TieredStore.DEFAULT_SPILL_THRESHOLD, direct);
+    }
+
+    @Override
+    @NotNull
+    public Store<InputStream> contentStore(@NotNull final Path directory, final long maxSize) throws IOException {
+        return new ContentStore(directory, maxSize);
     }
 
     @Override
     @NotNull
     public Builder rawBuilder() {
-        return new RawBuilder();
+        return rawBuilder(BuilderOptions.defaults());
+    }
+
+    @Override
+    @NotNull
+    public Builder rawBuilder(@NotNull final BuilderOptions options) {
+        return cached(new RawBuilder(executor, pipeCapacity, options), "raw", options, headers -> true);
     }
 
     @Override
     @NotNull
     public Builder bndBuilder() {
-        return new BndBuilder();
+        return bndBuilder(BuilderOptions.defaults());
+    }
+
+    @Override
+    @NotNull
+    public Builder bndBuilder(@NotNull final BuilderOptions options) {
+        return cached(new BndBuilder(executor, pipeCapacity, options, classpathJars), "bnd", options,
+            // bundles without symbolic name get a random one unless built reproducibly
+            headers -> options.isReproducible() || headers.containsKey(Constants.BUNDLE_SYMBOLICNAME));
+    }
+
+    @Override
+    @NotNull
+    public List<CompletableFuture<InputStream>> buildAll(@NotNull final Collection<TinyBundle> bundles, @NotNull final Builder builder) {
+        return BatchBuild.buildAll(bundles, builder, executor, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    @Nullable
+    public BuildCache buildCache() {
+        return cache;
+    }
+
+    private Builder cached(final Builder builder, final String type, final BuilderOptions options, final Predicate<Map<String, String>> cacheable) {
+        if (Objects.isNull(cache)) {
+            return builder;
+        }
+        return new CachingBuilder(builder, type, options, cache, cacheable);
     }
 
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SHA-256 digests for cache keys.
+ */
+public final class Digests {
+
+    private Digests() { //
+    }
+
+    /**
+     * Creates a new SHA-256 digest.
+     *
+     * @return the new digest
+     */
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Updates the digest with the length prefixed UTF-8 bytes of a string, so consecutive strings cannot collide.
+     *
+     * @param digest the digest
+     * @param value  the string
+     */
+    public static void update(final MessageDigest digest, final String value) {
+        final byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    /**
+     * Updates the digest with the paths and content digests of all resources and the headers, both sorted by name.
+     *
+     * @param digest    the digest
+     * @param resources the resources
+     * @param headers   the headers
+     * @throws IOException when reading a resource fails
+     */
+    public static void update(final MessageDigest digest, final Map<String, URL> resources, final Map<String, String> headers) throws IOException {
+        final MessageDigest contentDigest = sha256();
+        for (final Map.Entry<String, URL> entry : new TreeMap<>(resources).entrySet()) {
+            update(digest, entry.getKey());
+            ResourceTransfer.transfer(entry.getValue(), outputStream(contentDigest));
+            digest.update(contentDigest.digest());
+        }
+        for (final Map.Entry<String, String> entry : new TreeMap<>(headers).entrySet()) {
+            update(digest, entry.getKey());
+            update(digest, entry.getValue());
+        }
+    }
+
+    /**
+     * Creates a stream updating the digest with all bytes written.
+     *
+     * @param digest the digest
+     * @return the stream
+     */
+    public static OutputStream outputStream(final MessageDigest digest) {
+        return new DigestingOutputStream(digest);
+    }
+
+    /**
+     * Encodes bytes as lower case hex string.
+     *
+     * @param bytes the bytes
+     * @return the hex string
+     */
+    public static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    private static class DigestingOutputStream extends OutputStream {
+
+        private final MessageDigest digest;
+
+        DigestingOutputStream(final MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public void write(final int b) {
+            digest.update((byte) b);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) {
+            digest.update(bytes, offset, length);
+        }
+
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import aQute.bnd.osgi.About;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A persistent {@link BundleCache} in a directory which can be shared by concurrent JVMs.
+ * <p>
+ * Bundles are stored in files named by a digest of the cache key and the TinyBundles and bnd versions. A bundle is
+ * written to a temporary file first and published by an atomic move, so readers never see partially written bundles
+ * and need no locking. Reading a bundle updates the modification time of its file, which is used for LRU pruning:
+ * when the size of all bundles exceeds the maximum size, the least recently used bundles are deleted while holding
+ * an exclusive lock on the lock file in the directory.
+ */
+public class DiskBuildCache implements BundleCache {
+
+    private static final String SUFFIX = ".jar";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final String LOCK_FILE = ".lock";
+
+    private static final long STALE_TEMP_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * File locks are held by the JVM, threads within the JVM are serialized by this monitor.
+     */
+    private static final Object LOCK = new Object();
+
+    private final Logger logger = LoggerFactory.getLogger(DiskBuildCache.class);
+
+    private final Path directory;
+
+    private final long maxSize;
+
+    private final String version;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param directory the cache directory, created when needed
+     * @param maxSize   the maximum size in bytes of all cached bundles
+     */
+    public DiskBuildCache(final Path directory, final long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.version = String.format("%s %s", Info.getPaxTinybundlesVersion(), About.getBndVersion());
+    }
+
+    private Path file(final String key) {
+        final MessageDigest digest = Digests.sha256();
+        Digests.update(digest, version);
+        Digests.update(digest, key);
+        return directory.resolve(Digests.toHex(digest.digest()) + SUFFIX);
+    }
+
+    @Override
+    @Nullable
+    public InputStream get(final String key) throws IOException {
+        final Path file = file(key);
+        final InputStream inputStream;
+        try {
+            inputStream = Files.newInputStream(file);
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debug("Unable to update modification time of {}", file, e);
+        }
+        return inputStream;
+    }
+
+    @Override
+    public void put(final String key, final byte[] bundle) throws IOException {
+        if (bundle.length > maxSize) {
+            logger.debug("Not caching bundle {} with size {}", key, bundle.length);
+            return;
+        }
+        Files.createDirectories(directory);
+        final Path file = file(key);
+        final Path temp = Files.createTempFile(directory, file.getFileName().toString(), TEMP_SUFFIX);
+        try {
+            Files.write(temp, bundle);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (FileSystemException e) {
+            // e.g. on Windows when another JVM is reading the same bundle published concurrently
+            logger.debug("Unable to publish cached bundle {}", file, e);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        prune();
+    }
+
+    private void prune() throws IOException {
+        final List<CachedFile> files = list();
+        long size = files.stream().mapToLong(CachedFile::getSize).sum();
+        if (size <= maxSize) {
+            return;
+        }
+        synchronized (LOCK) {
+            try (FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                final List<CachedFile> locked = list();
+                locked.sort(Comparator.comparing(CachedFile::getLastModified));
+                size = locked.stream().mapToLong(CachedFile::getSize).sum();
+                for (final CachedFile cachedFile : locked) {
+                    if (size <= maxSize) {
+                        break;
+                    }
+                    // bundles which cannot be deleted (e.g. being read) still occupy the directory
+                    if (delete(cachedFile.path)) {
+                        evictions.incrementAndGet();
+                        size -= cachedFile.size;
+                    }
+                }
+                deleteStaleTempFiles();
+            }
+        }
+    }
+
+    private List<CachedFile> list() throws IOException {
+        final List<CachedFile> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (final Path path : (Iterable<Path>) paths::iterator) {
+                if (path.getFileName().toString().endsWith(SUFFIX)) {
+                    try {
+                        files.add(new CachedFile(path, Files.readAttributes(path, BasicFileAttributes.class)));
+                    } catch (NoSuchFileException e) {
+                        // deleted concurrently
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    private void deleteStaleTempFiles() throws IOException {
+        final long stale = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (final Path path : (Iterable<Path>) paths::iterator) {
+                try {
+                    if (path.getFileName().toString().endsWith(TEMP_SUFFIX) && Files.getLastModifiedTime(path).toMillis() < stale) {
+                        delete(path);
+                    }
+                } catch (NoSuchFileException e) {
+                    // deleted concurrently
+                }
+            }
+        }
+    }
+
+    private boolean delete(final Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // e.g. on Windows when the bundle is being read
+            logger.debug("Unable to delete cached bundle {}", path, e);
+            return false;
+        }
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public int getCount() {
+        try {
+            return list().size();
+        } catch (IOException e) {
+            logger.warn("Unable to list cached bundles in {}", directory, e);
+            return 0;
+        }
+    }
+
+    @Override
+    public long getSize() {
+        try {
+            return list().stream().mapToLong(CachedFile::getSize).sum();
+        } catch (IOException e) {
+            logger.warn("Unable to list cached bundles in {}", directory, e);
+            return 0;
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            list().forEach(cachedFile -> delete(cachedFile.path));
+        } catch (IOException e) {
+            logger.warn("Unable to clear cached bundles in {}", directory, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DiskBuildCache{directory=%s, hits=%s, misses=%s, evictions=%s}", directory, hits, misses, evictions);
+    }
+
+    private static class CachedFile {
+
+        private final Path path;
+
+        private final long size;
+
+        private final FileTime lastModified;
+
+        CachedFile(final Path path, final BasicFileAttributes attributes) {
+            this.path = path;
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime();
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        FileTime getLastModified() {
+            return lastModified;
+        }
+
+    }
+
+}
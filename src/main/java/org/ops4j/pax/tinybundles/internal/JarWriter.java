@@ -0,0 +1,372 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import aQute.bnd.osgi.Resource;
+import aQute.bnd.osgi.WriteResource;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.Compression;
+
+/**
+ * Writes jar entries applying a {@link Compression} policy.
+ * Entries to be stored uncompressed get their CRC and size calculated before they are written.
+ * <p>
+ * Entries are written in the order they are given, either sequentially to a single jar stream or compressed in
+ * parallel, see {@link #create(OutputStream, BuilderOptions)}.
+ */
+public abstract class JarWriter implements Closeable {
+
+    /**
+     * The entry time of reproducible builds, 1980-02-01T00:00:00Z as used by bnd.
+     */
+    public static final long REPRODUCIBLE_TIME = 318211200000L;
+
+    private final Compression compression;
+
+    private volatile BuildTask task;
+
+    protected JarWriter(final Compression compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Tracks streams opened to read entry content with given build task, so cancelling the build closes them.
+     *
+     * @param task the build task
+     */
+    public void track(final BuildTask task) {
+        this.task = task;
+    }
+
+    private InputStream openStream(final URL url) throws IOException {
+        final InputStream inputStream = url.openStream();
+        final BuildTask buildTask = task;
+        return Objects.isNull(buildTask) ? inputStream : buildTask.track(inputStream);
+    }
+
+    /**
+     * Creates a jar writer for given options.
+     *
+     * @param outputStream the stream to write the jar to
+     * @param options      the builder options
+     * @param executor     the executor of the builder, compressing entries in parallel when enabled
+     * @return the jar writer
+     * @throws IOException when creating the jar stream fails
+     */
+    public static JarWriter create(final OutputStream outputStream, final BuilderOptions options, final Executor executor) throws IOException {
+        if (options.isParallelCompression()) {
+            return new ParallelJarWriter(outputStream, options.getCompression(), executor, 2 * Runtime.getRuntime().availableProcessors());
+        }
+        if (options.isPassthrough()) {
+            // raw copies are assembled like compressed batches, but on the writing thread
+            return new ParallelJarWriter(outputStream, options.getCompression(), Runnable::run, 1);
+        }
+        return new SequentialJarWriter(outputStream, options.getCompression());
+    }
+
+    /**
+     * Creates an entry with given modification time stored as UTC like bnd does,
+     * so the stored time does not depend on the time zone.
+     *
+     * @param path the entry path
+     * @param time the modification time
+     * @return the entry
+     */
+    public static ZipEntry createEntry(final String path, final long time) {
+        final ZipEntry entry = new ZipEntry(path);
+        entry.setTime(time - TimeZone.getDefault().getOffset(time));
+        return entry;
+    }
+
+    /**
+     * Writes an entry with given content.
+     *
+     * @param entry   the entry
+     * @param content the entry content
+     * @throws IOException when writing fails
+     */
+    public void write(final ZipEntry entry, final byte[] content) throws IOException {
+        put(content.length, zipOut -> {
+            if (compression.isStored(entry.getName())) {
+                putStored(zipOut, entry, content, 0, content.length);
+            } else {
+                zipOut.putNextEntry(entry);
+                zipOut.write(content);
+                zipOut.closeEntry();
+            }
+        });
+    }
+
+    /**
+     * Writes an entry with the content of given URL.
+     *
+     * @param entry the entry
+     * @param url   the URL of the entry content
+     * @throws IOException when reading or writing fails
+     */
+    public void write(final ZipEntry entry, final URL url) throws IOException {
+        final ByteBuffer buffer = BufferUrls.toBuffer(url);
+        if (Objects.nonNull(buffer)) {
+            write(entry, buffer);
+            return;
+        }
+        final Path path = ResourceTransfer.toPath(url);
+        put(Objects.nonNull(path) ? Files.size(path) : -1, zipOut -> {
+            if (compression.isStored(entry.getName())) {
+                if (Objects.nonNull(path)) {
+                    final CRC32 crc = new CRC32();
+                    final long size = ResourceTransfer.transfer(path, new CheckedOutputStream(NullOutputStream.INSTANCE, crc));
+                    setStored(entry, size, crc.getValue());
+                    zipOut.putNextEntry(entry);
+                    ResourceTransfer.transfer(path, zipOut);
+                    zipOut.closeEntry();
+                } else {
+                    final Bytes bytes = new Bytes();
+                    try (InputStream inputStream = openStream(url)) {
+                        ResourceTransfer.transfer(inputStream, bytes);
+                    }
+                    putStored(zipOut, entry, bytes.array(), 0, bytes.size());
+                }
+            } else {
+                zipOut.putNextEntry(entry);
+                if (Objects.nonNull(path)) {
+                    ResourceTransfer.transfer(path, zipOut);
+                } else {
+                    try (InputStream inputStream = openStream(url)) {
+                        ResourceTransfer.transfer(inputStream, zipOut);
+                    }
+                }
+                zipOut.closeEntry();
+            }
+        });
+    }
+
+    /**
+     * Writes an entry with the remaining content of given buffer, the position of the buffer is not changed.
+     *
+     * @param entry  the entry
+     * @param buffer the entry content
+     * @throws IOException when writing fails
+     */
+    public void write(final ZipEntry entry, final ByteBuffer buffer) throws IOException {
+        put(buffer.remaining(), zipOut -> {
+            if (compression.isStored(entry.getName())) {
+                putStored(zipOut, entry, buffer);
+            } else {
+                zipOut.putNextEntry(entry);
+                ResourceTransfer.transfer(buffer, zipOut);
+                zipOut.closeEntry();
+            }
+        });
+    }
+
+    /**
+     * Writes an entry with the content of given bnd resource.
+     *
+     * @param entry    the entry
+     * @param resource the bnd resource
+     * @throws IOException when reading or writing fails
+     */
+    public void write(final ZipEntry entry, final Resource resource) throws IOException {
+        if (resource instanceof UrlResource) {
+            // stream the content from the URL the same way, but with the stream tracked
+            write(entry, ((UrlResource) resource).getUrl());
+            return;
+        }
+        put(size(resource), zipOut -> {
+            try {
+                if (compression.isStored(entry.getName())) {
+                    ByteBuffer buffer = resource.buffer();
+                    if (Objects.isNull(buffer)) {
+                        final Bytes bytes = new Bytes();
+                        try (InputStream inputStream = resource.openInputStream()) {
+                            ResourceTransfer.transfer(inputStream, bytes);
+                        }
+                        buffer = ByteBuffer.wrap(bytes.array(), 0, bytes.size());
+                    }
+                    putStored(zipOut, entry, buffer);
+                } else {
+                    zipOut.putNextEntry(entry);
+                    resource.write(zipOut);
+                    zipOut.closeEntry();
+                }
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(String.format("Problem writing resource %s", entry.getName()), e);
+            }
+        });
+    }
+
+    /**
+     * Copies an entry read in from a jar file as raw compressed bytes if the writer supports it.
+     *
+     * @param path the entry path
+     * @param url  the URL of the entry content
+     * @return true if the entry was copied, false if it has to be written
+     * @throws IOException when reading or writing fails
+     */
+    public boolean copy(final String path, final URL url) throws IOException {
+        return false;
+    }
+
+    /**
+     * Writes a directory entry.
+     *
+     * @param entry the directory entry
+     * @throws IOException when writing fails
+     */
+    public void writeDirectory(final ZipEntry entry) throws IOException {
+        if (compression.isStored()) {
+            setStored(entry, 0, 0);
+        }
+        put(0, zipOut -> {
+            zipOut.putNextEntry(entry);
+            zipOut.closeEntry();
+        });
+    }
+
+    /**
+     * Gets the size of a bnd resource if known without reading its content.
+     *
+     * @param resource the bnd resource
+     * @return the size or -1 if unknown
+     */
+    private static long size(final Resource resource) {
+        if (resource instanceof WriteResource) {
+            return -1;
+        }
+        try {
+            return resource.size();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Writes an entry to a zip stream, either directly to the jar stream or to a separate stream.
+     *
+     * @param size   the (uncompressed) size of the entry or -1 if unknown
+     * @param writer the writer of the entry
+     * @throws IOException when writing fails
+     */
+    protected abstract void put(long size, EntryWriter writer) throws IOException;
+
+    /**
+     * Finishes the jar without closing the underlying stream.
+     *
+     * @throws IOException when writing fails
+     */
+    public abstract void finish() throws IOException;
+
+    /**
+     * Finishes the jar and closes the underlying stream.
+     *
+     * @throws IOException when writing fails
+     */
+    @Override
+    public abstract void close() throws IOException;
+
+    protected void configure(final ZipOutputStream zipOut) {
+        zipOut.setLevel(compression.getLevel());
+    }
+
+    private static void putStored(final ZipOutputStream zipOut, final ZipEntry entry, final byte[] bytes, final int offset, final int length) throws IOException {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        setStored(entry, length, crc.getValue());
+        zipOut.putNextEntry(entry);
+        zipOut.write(bytes, offset, length);
+        zipOut.closeEntry();
+    }
+
+    private static void putStored(final ZipOutputStream zipOut, final ZipEntry entry, final ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            putStored(zipOut, entry, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        setStored(entry, buffer.remaining(), crc.getValue());
+        zipOut.putNextEntry(entry);
+        ResourceTransfer.transfer(buffer, zipOut);
+        zipOut.closeEntry();
+    }
+
+    private static void setStored(final ZipEntry entry, final long size, final long crc) {
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(size);
+        entry.setCompressedSize(size);
+        entry.setCrc(crc);
+    }
+
+    @FunctionalInterface
+    protected interface EntryWriter {
+
+        void write(ZipOutputStream zipOut) throws IOException;
+
+    }
+
+    protected static class Bytes extends ByteArrayOutputStream {
+
+        Bytes() {
+            super(ResourceTransfer.BUFFER_SIZE);
+        }
+
+        Bytes(final int size) {
+            super(size);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+    }
+
+    private static class NullOutputStream extends OutputStream {
+
+        static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(final int b) { //
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) { //
+        }
+
+    }
+
+}
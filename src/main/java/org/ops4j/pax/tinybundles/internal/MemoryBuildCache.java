@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An in-process {@link BundleCache} with LRU eviction when the size of all cached bundles exceeds the maximum size.
+ * <p>
+ * Small bundles are held in memory, bundles larger than the spill threshold are written to files in a temporary
+ * directory which is deleted on exit.
+ */
+public class MemoryBuildCache implements BundleCache {
+
+    public static final int DEFAULT_SPILL_THRESHOLD = 1024 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(MemoryBuildCache.class);
+
+    private final long maxSize;
+
+    private final int spillThreshold;
+
+    private final Map<String, Artifact> artifacts = new LinkedHashMap<>(16, 0.75f, true);
+
+    private Path spillDirectory;
+
+    private long size;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    /**
+     * @param maxSize the maximum size in bytes of all cached bundles
+     */
+    public MemoryBuildCache(final long maxSize) {
+        this(maxSize, DEFAULT_SPILL_THRESHOLD);
+    }
+
+    /**
+     * @param maxSize        the maximum size in bytes of all cached bundles
+     * @param spillThreshold the size in bytes above which bundles are written to files instead of held in memory
+     */
+    public MemoryBuildCache(final long maxSize, final int spillThreshold) {
+        this.maxSize = maxSize;
+        this.spillThreshold = spillThreshold;
+    }
+
+    @Override
+    @Nullable
+    public synchronized InputStream get(final String key) throws IOException {
+        final Artifact artifact = artifacts.get(key);
+        if (Objects.isNull(artifact)) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return artifact.open();
+    }
+
+    @Override
+    public synchronized void put(final String key, final byte[] bundle) throws IOException {
+        if (bundle.length > maxSize) {
+            logger.debug("Not caching bundle {} with size {}", key, bundle.length);
+            return;
+        }
+        remove(artifacts.remove(key));
+        final Artifact artifact = bundle.length > spillThreshold ? new Artifact(spill(key, bundle), bundle.length) : new Artifact(bundle);
+        artifacts.put(key, artifact);
+        size += artifact.size;
+        final Iterator<Artifact> iterator = artifacts.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            final Artifact eldest = iterator.next();
+            iterator.remove();
+            remove(eldest);
+            evictions++;
+        }
+    }
+
+    private Path spill(final String key, final byte[] bundle) throws IOException {
+        if (Objects.isNull(spillDirectory)) {
+            spillDirectory = Files.createTempDirectory("tinybundles-cache");
+            spillDirectory.toFile().deleteOnExit();
+        }
+        final Path file = spillDirectory.resolve(key + ".jar");
+        Files.write(file, bundle);
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    private void remove(@Nullable final Artifact artifact) {
+        if (Objects.isNull(artifact)) {
+            return;
+        }
+        size -= artifact.size;
+        if (Objects.nonNull(artifact.file)) {
+            try {
+                Files.deleteIfExists(artifact.file);
+            } catch (IOException e) {
+                logger.warn("Unable to delete cached bundle {}", artifact.file, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized int getCount() {
+        return artifacts.size();
+    }
+
+    @Override
+    public synchronized long getSize() {
+        return size;
+    }
+
+    @Override
+    public synchronized void clear() {
+        artifacts.values().forEach(this::remove);
+        artifacts.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("MemoryBuildCache{count=%s, size=%s, hits=%s, misses=%s, evictions=%s}", artifacts.size(), size, hits, misses, evictions);
+    }
+
+    private static class Artifact {
+
+        private final byte[] bytes;
+
+        private final Path file;
+
+        private final long size;
+
+        Artifact(final byte[] bytes) {
+            this.bytes = bytes;
+            this.file = null;
+            this.size = bytes.length;
+        }
+
+        Artifact(final Path file, final long size) {
+            this.bytes = null;
+            this.file = file;
+            this.size = size;
+        }
+
+        InputStream open() throws IOException {
+            return Objects.nonNull(bytes) ? new ByteArrayInputStream(bytes) : Files.newInputStream(file);
+        }
+
+    }
+
+}
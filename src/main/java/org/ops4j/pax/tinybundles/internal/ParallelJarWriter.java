@@ -0,0 +1,385 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.ops4j.pax.tinybundles.Compression;
+
+/**
+ * Compresses entries in parallel and writes them to the jar in order.
+ * <p>
+ * Entries are collected in batches of small entries (a large entry or an entry with unknown size ends a batch).
+ * Each batch is written by its own {@link ZipOutputStream} (a {@link JarOutputStream} for the first batch) into a
+ * buffer, so local headers, compressed data and data descriptors are exactly the bytes a single jar stream would
+ * write. The buffered batches are appended to the jar in order, their central directory records are collected with
+ * the local header offsets patched. The output is byte-identical to {@link SequentialJarWriter}.
+ * <p>
+ * Compressed batches are buffered in memory, the number of pending batches is bounded. Entries at offsets beyond
+ * 4 GB are not supported.
+ * <p>
+ * Batches are compressed on the given executor (reading entry content may block). A batch not started yet when its
+ * turn to be appended comes is compressed on the writing thread, so the writer never waits for a busy or bounded
+ * executor it may run on itself.
+ */
+public class ParallelJarWriter extends JarWriter {
+
+    private static final int ENDSIG = 0x06054b50;
+
+    private static final int ENDHDR = 22;
+
+    private static final int ZIP64_ENDSIG = 0x06064b50;
+
+    private static final int ZIP64_LOCSIG = 0x07064b50;
+
+    private static final int ZIP64_ENDHDR = 56;
+
+    private static final long ZIP64_MAGICVAL = 0xFFFFFFFFL;
+
+    private static final int ZIP64_MAGICCOUNT = 0xFFFF;
+
+    private static final int CENHDR = 46;
+
+    private static final int BATCH_SIZE = 64 * 1024;
+
+    private static final int BATCH_ENTRIES = 256;
+
+    private final OutputStream outputStream;
+
+    private final Executor executor;
+
+    private final int maxPending;
+
+    private final Deque<Work> pending = new ArrayDeque<>();
+
+    private final Bytes central = new Bytes();
+
+    private List<EntryWriter> batch = new ArrayList<>();
+
+    private long batchSize;
+
+    private long written;
+
+    private int count;
+
+    private boolean first = true;
+
+    private boolean failed;
+
+    private boolean finished;
+
+    /**
+     * @param outputStream the stream to write the jar to
+     * @param compression  the compression policy
+     * @param executor     the executor compressing the entries
+     * @param maxPending   the maximum number of compressed batches waiting to be written
+     */
+    public ParallelJarWriter(final OutputStream outputStream, final Compression compression, final Executor executor, final int maxPending) {
+        super(compression);
+        this.outputStream = outputStream;
+        this.executor = executor;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    protected void put(final long size, final EntryWriter writer) throws IOException {
+        batch.add(writer);
+        batchSize += size < 0 ? BATCH_SIZE : size;
+        if (batchSize >= BATCH_SIZE || batch.size() >= BATCH_ENTRIES) {
+            submit();
+        }
+        drain(false);
+    }
+
+    /**
+     * Copies entries of zip sources with their local records and central directory records, both are read on the
+     * executor and appended in order like compressed batches.
+     */
+    @Override
+    public boolean copy(final String path, final URL url) throws IOException {
+        final ZipSource.RawEntry raw = ZipSource.toRawEntry(url);
+        if (Objects.isNull(raw) || !raw.getName().equals(path)) {
+            return false;
+        }
+        submit();
+        first = false;
+        pending.add(schedule(() -> copy(raw)));
+        drain(false);
+        return true;
+    }
+
+    /**
+     * Reads a raw entry as zip with this entry only.
+     */
+    private static Bytes copy(final ZipSource.RawEntry raw) {
+        try {
+            final byte[] local = raw.readLocal();
+            final byte[] central = raw.getCentral();
+            final Bytes bytes = new Bytes(local.length + central.length + ENDHDR);
+            bytes.write(local);
+            bytes.write(central);
+            writeInt(bytes, ENDSIG);
+            writeShort(bytes, 0);
+            writeShort(bytes, 0);
+            writeShort(bytes, 1);
+            writeShort(bytes, 1);
+            writeInt(bytes, central.length);
+            writeInt(bytes, local.length);
+            writeShort(bytes, 0);
+            return bytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void submit() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final List<EntryWriter> writers = batch;
+        final boolean jar = first;
+        batch = new ArrayList<>();
+        batchSize = 0;
+        first = false;
+        pending.add(schedule(() -> compress(writers, jar)));
+    }
+
+    private Work schedule(final Supplier<Bytes> task) {
+        final Work work = new Work(task);
+        try {
+            executor.execute(work::run);
+        } catch (RejectedExecutionException e) {
+            // compressed on the writing thread when appended
+        }
+        return work;
+    }
+
+    private Bytes compress(final List<EntryWriter> writers, final boolean jar) {
+        final Bytes bytes = new Bytes();
+        try (ZipOutputStream zipOut = jar ? new JarOutputStream(bytes) : new ZipOutputStream(bytes)) {
+            configure(zipOut);
+            for (final EntryWriter writer : writers) {
+                writer.write(zipOut);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes;
+    }
+
+    private void drain(final boolean all) throws IOException {
+        try {
+            while (!pending.isEmpty() && (all || pending.size() > maxPending || pending.peek().future.isDone())) {
+                append(join(pending.poll()));
+            }
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    private Bytes join(final Work work) throws IOException {
+        work.run();
+        try {
+            return work.future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Appends local headers, data and data descriptors of a batch and collects its central directory records.
+     *
+     * @param bytes the zip of the batch
+     */
+    private void append(final Bytes bytes) throws IOException {
+        final byte[] zip = bytes.array();
+        final int end = bytes.size() - ENDHDR;
+        if (end < 0 || getInt(zip, end) != ENDSIG) {
+            throw new IOException("Unexpected end of compressed entries.");
+        }
+        final int entries = getShort(zip, end + 10);
+        final long cenSize = getInt(zip, end + 12) & ZIP64_MAGICVAL;
+        final long cenOffset = getInt(zip, end + 16) & ZIP64_MAGICVAL;
+        if (cenOffset + cenSize != end || written + cenOffset >= ZIP64_MAGICVAL) {
+            throw new IOException("Jar too large for parallel compression.");
+        }
+        int record = (int) cenOffset;
+        for (int i = 0; i < entries; i++) {
+            final long offset = getInt(zip, record + 42) & ZIP64_MAGICVAL;
+            putInt(zip, record + 42, (int) (written + offset));
+            record += CENHDR + getShort(zip, record + 28) + getShort(zip, record + 30) + getShort(zip, record + 32);
+        }
+        outputStream.write(zip, 0, (int) cenOffset);
+        central.write(zip, (int) cenOffset, (int) cenSize);
+        written += cenOffset;
+        count += entries;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        submit();
+        drain(true);
+        central.writeTo(outputStream);
+        writeEnd(written, central.size());
+        finished = true;
+    }
+
+    /**
+     * Writes the end of central directory record(s) the same way {@link ZipOutputStream} does.
+     *
+     * @param offset the offset of the central directory
+     * @param length the length of the central directory
+     */
+    private void writeEnd(final long offset, final long length) throws IOException {
+        final Bytes end = new Bytes(ZIP64_ENDHDR + 20 + ENDHDR);
+        final boolean zip64 = length >= ZIP64_MAGICVAL || offset >= ZIP64_MAGICVAL || count >= ZIP64_MAGICCOUNT;
+        if (zip64) {
+            final long zip64Offset = offset + length;
+            writeInt(end, ZIP64_ENDSIG);
+            writeLong(end, ZIP64_ENDHDR - 12);
+            writeShort(end, 45);
+            writeShort(end, 45);
+            writeInt(end, 0);
+            writeInt(end, 0);
+            writeLong(end, count);
+            writeLong(end, count);
+            writeLong(end, length);
+            writeLong(end, offset);
+            writeInt(end, ZIP64_LOCSIG);
+            writeInt(end, 0);
+            writeLong(end, zip64Offset);
+            writeInt(end, 1);
+        }
+        final int entries = zip64 ? ZIP64_MAGICCOUNT : count;
+        writeInt(end, ENDSIG);
+        writeShort(end, 0);
+        writeShort(end, 0);
+        writeShort(end, entries);
+        writeShort(end, entries);
+        writeInt(end, (int) Math.min(length, ZIP64_MAGICVAL));
+        writeInt(end, (int) Math.min(offset, ZIP64_MAGICVAL));
+        writeShort(end, 0);
+        end.writeTo(outputStream);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!failed) {
+                finish();
+            }
+        } finally {
+            pending.forEach(Work::cancel);
+            pending.clear();
+            outputStream.close();
+        }
+    }
+
+    private static int getShort(final byte[] bytes, final int index) {
+        return (bytes[index] & 0xff) | (bytes[index + 1] & 0xff) << 8;
+    }
+
+    private static int getInt(final byte[] bytes, final int index) {
+        return (bytes[index] & 0xff) | (bytes[index + 1] & 0xff) << 8 | (bytes[index + 2] & 0xff) << 16 | (bytes[index + 3] & 0xff) << 24;
+    }
+
+    private static void putInt(final byte[] bytes, final int index, final int value) {
+        bytes[index] = (byte) value;
+        bytes[index + 1] = (byte) (value >>> 8);
+        bytes[index + 2] = (byte) (value >>> 16);
+        bytes[index + 3] = (byte) (value >>> 24);
+    }
+
+    private static void writeShort(final OutputStream out, final int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+    }
+
+    private static void writeInt(final OutputStream out, final int value) throws IOException {
+        writeShort(out, value & 0xffff);
+        writeShort(out, (value >>> 16) & 0xffff);
+    }
+
+    private static void writeLong(final OutputStream out, final long value) throws IOException {
+        writeInt(out, (int) value);
+        writeInt(out, (int) (value >>> 32));
+    }
+
+    /**
+     * A batch to be compressed (or copied) once, by the executor or by the writing thread, whichever claims it first.
+     */
+    private static final class Work {
+
+        private final Supplier<Bytes> task;
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private final CompletableFuture<Bytes> future = new CompletableFuture<>();
+
+        private Work(final Supplier<Bytes> task) {
+            this.task = task;
+        }
+
+        private void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                future.complete(task.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+
+        private void cancel() {
+            if (claimed.compareAndSet(false, true)) {
+                future.cancel(false);
+            }
+        }
+
+    }
+
+}
@@ -19,12 +19,19 @@ package org.ops4j.pax.tinybundles.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PipedOutputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Manifest;
 
 import org.jetbrains.annotations.NotNull;
+import org.ops4j.pax.tinybundles.BuildHandle;
 import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BuilderOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,17 +42,53 @@ public class RawBuilder extends AbstractBuilder implements Builder {
 
     private final Logger logger = LoggerFactory.getLogger(RawBuilder.class);
 
+    public RawBuilder() { //
+    }
+
+    public RawBuilder(final Executor executor, final int pipeCapacity, final BuilderOptions options) {
+        super(executor, pipeCapacity, options);
+    }
+
+    @Override
+    @NotNull
+    public Manifest manifest(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers) {
+        return createManifest(new TreeMap<>(headers).entrySet());
+    }
+
     @Override
     @NotNull
     public InputStream build(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers) {
         logger.info("Building jar from resources and headers.");
         try {
-            final CloseAwarePipedInputStream pin = new CloseAwarePipedInputStream();
-            final PipedOutputStream pout = new PipedOutputStream(pin);
-            new Thread(() -> build(resources, headers, pout, pin)).start();
-            return pin;
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            if (getOptions().isLazyStart()) {
+                final Map<String, URL> capturedResources = new HashMap<>(resources);
+                final Map<String, String> capturedHeaders = new HashMap<>(headers);
+                return createTask((t, pipe) -> build(capturedResources, capturedHeaders, t, pipe)).getInputStream();
+            }
+            final BuildTask task = createTask((t, pipe) -> build(resources, headers, t, pipe));
+            task.start();
+            return task.getInputStream();
+        } finally {
+            logger.info("Writing jar finished.");
+        }
+    }
+
+    @Override
+    @NotNull
+    public BuildHandle buildHandle(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, final long timeout, @NotNull final TimeUnit unit) {
+        logger.info("Building jar from resources and headers.");
+        final BuildTask task = createTask((t, pipe) -> build(resources, headers, t, pipe));
+        task.timeout(timeout, unit);
+        task.cancelOnClose();
+        task.start();
+        return task;
+    }
+
+    @Override
+    public void writeTo(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, @NotNull final OutputStream target) throws IOException {
+        logger.info("Writing jar from resources and headers.");
+        try {
+            build(resources, headers, target);
         } finally {
             logger.info("Writing jar finished.");
         }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Transfers resource content into jar streams.
+ * <p>
+ * Content of {@code file:} URLs is read from the file channel directly and heap buffers are written at once, all
+ * other sources are streamed. Transfers share a pool of reusable buffers, so copying an entry does not allocate.
+ */
+public final class ResourceTransfer {
+
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final BlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<>(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+
+    private ResourceTransfer() { //
+    }
+
+    /**
+     * Transfers the content of the URL to the stream.
+     *
+     * @param url    the URL of the content
+     * @param target the stream to write the content to
+     * @return the number of bytes transferred
+     * @throws IOException when reading or writing fails
+     */
+    public static long transfer(final URL url, final OutputStream target) throws IOException {
+        final Path path = toPath(url);
+        if (Objects.nonNull(path)) {
+            return transfer(path, target);
+        }
+        final ByteBuffer buffer = BufferUrls.toBuffer(url);
+        if (Objects.nonNull(buffer)) {
+            return transfer(buffer, target);
+        }
+        try (InputStream inputStream = url.openStream()) {
+            return transfer(inputStream, target);
+        }
+    }
+
+    /**
+     * Transfers the content of the file to the stream.
+     *
+     * @param path   the file
+     * @param target the stream to write the content to
+     * @return the number of bytes transferred
+     * @throws IOException when reading or writing fails
+     */
+    public static long transfer(final Path path, final OutputStream target) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final byte[] buffer = acquire();
+            try {
+                final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+                long count = 0;
+                int n;
+                while ((n = channel.read(byteBuffer)) != -1) {
+                    target.write(buffer, 0, n);
+                    // Buffer, as ByteBuffer.clear() does not exist on Java 8
+                    ((Buffer) byteBuffer).clear();
+                    count += n;
+                }
+                return count;
+            } finally {
+                release(buffer);
+            }
+        }
+    }
+
+    /**
+     * Transfers the remaining content of the buffer to the stream, the position of the buffer is not changed.
+     * Heap buffers are written at once.
+     *
+     * @param buffer the buffer
+     * @param target the stream to write the content to
+     * @return the number of bytes transferred
+     * @throws IOException when writing fails
+     */
+    public static long transfer(final ByteBuffer buffer, final OutputStream target) throws IOException {
+        final int size = buffer.remaining();
+        if (buffer.hasArray()) {
+            target.write(buffer.array(), buffer.arrayOffset() + buffer.position(), size);
+            return size;
+        }
+        final byte[] chunk = acquire();
+        try {
+            final ByteBuffer source = buffer.duplicate();
+            while (source.hasRemaining()) {
+                final int n = Math.min(chunk.length, source.remaining());
+                source.get(chunk, 0, n);
+                target.write(chunk, 0, n);
+            }
+            return size;
+        } finally {
+            release(chunk);
+        }
+    }
+
+    /**
+     * Transfers the content of the stream to the other stream.
+     * The source stream is not closed.
+     *
+     * @param source the stream to read the content from
+     * @param target the stream to write the content to
+     * @return the number of bytes transferred
+     * @throws IOException when reading or writing fails
+     */
+    public static long transfer(final InputStream source, final OutputStream target) throws IOException {
+        final byte[] buffer = acquire();
+        try {
+            long count = 0;
+            int n;
+            while ((n = source.read(buffer)) != -1) {
+                target.write(buffer, 0, n);
+                count += n;
+            }
+            return count;
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Gets the file path for a {@code file:} URL.
+     *
+     * @param url the URL
+     * @return the path or null if the URL does not point to a local file
+     */
+    public static Path toPath(final URL url) {
+        if (!"file".equalsIgnoreCase(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static byte[] acquire() {
+        final byte[] buffer = BUFFERS.poll();
+        return Objects.nonNull(buffer) ? buffer : new byte[BUFFER_SIZE];
+    }
+
+    static void release(final byte[] buffer) {
+        BUFFERS.offer(buffer);
+    }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A pipe connecting one producer thread writing a jar with one consumer thread reading it.
+ * <p>
+ * Unlike {@link java.io.PipedInputStream} the pipe uses a ring buffer of configurable capacity and wakes waiting
+ * threads via conditions instead of polling. A failing producer can {@link #fail(Throwable) fail} the pipe, the
+ * consumer then gets an {@link IOException} with the failure as cause instead of a silently truncated stream.
+ */
+public class RingBufferPipe {
+
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private final byte[] buffer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    private final PipeInputStream inputStream = new PipeInputStream();
+
+    private final PipeOutputStream outputStream = new PipeOutputStream();
+
+    // guarded by lock
+    private int head;
+
+    // guarded by lock
+    private int count;
+
+    // guarded by lock
+    private boolean writeClosed;
+
+    // guarded by lock
+    private Throwable failure;
+
+    private volatile boolean readClosed;
+
+    public RingBufferPipe() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RingBufferPipe(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(String.format("Pipe capacity must be positive: %s", capacity));
+        }
+        this.buffer = new byte[capacity];
+    }
+
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    /**
+     * Whether the consumer closed the input stream.
+     *
+     * @return true if the input stream is closed
+     */
+    public boolean isClosed() {
+        return readClosed;
+    }
+
+    /**
+     * Fails the pipe, the consumer gets an {@link IOException} with given cause on next read.
+     *
+     * @param cause the producer failure
+     */
+    public void fail(final Throwable cause) {
+        lock.lock();
+        try {
+            if (Objects.isNull(failure)) {
+                failure = cause;
+            }
+            writeClosed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        lock.lock();
+        try {
+            while (count == 0) {
+                checkReadable();
+                if (writeClosed) {
+                    return -1;
+                }
+                await(notEmpty);
+            }
+            checkReadable();
+            final int n = Math.min(length, Math.min(count, buffer.length - head));
+            System.arraycopy(buffer, head, bytes, offset, n);
+            head = (head + n) % buffer.length;
+            count -= n;
+            notFull.signal();
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        int off = offset;
+        int remaining = length;
+        lock.lock();
+        try {
+            while (remaining > 0) {
+                while (count == buffer.length) {
+                    checkWritable();
+                    await(notFull);
+                }
+                checkWritable();
+                final int tail = (head + count) % buffer.length;
+                final int n = Math.min(remaining, Math.min(buffer.length - count, buffer.length - tail));
+                System.arraycopy(bytes, off, buffer, tail, n);
+                count += n;
+                off += n;
+                remaining -= n;
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(final int b) throws IOException {
+        lock.lock();
+        try {
+            while (count == buffer.length) {
+                checkWritable();
+                await(notFull);
+            }
+            checkWritable();
+            buffer[(head + count) % buffer.length] = (byte) b;
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkReadable() throws IOException {
+        if (readClosed) {
+            throw new IOException("Pipe closed");
+        }
+        if (Objects.nonNull(failure)) {
+            throw new IOException("Problem while writing jar.", failure);
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        if (readClosed) {
+            throw new IOException("Pipe closed by reader");
+        }
+        if (writeClosed) {
+            throw new IOException("Write end closed");
+        }
+    }
+
+    private void await(final Condition condition) throws InterruptedIOException {
+        try {
+            condition.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on pipe");
+        }
+    }
+
+    private class PipeInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            final byte[] bytes = new byte[1];
+            final int n = read(bytes, 0, 1);
+            return n == -1 ? -1 : bytes[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            Objects.requireNonNull(bytes);
+            if (offset < 0 || length < 0 || length > bytes.length - offset) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (length == 0) {
+                return 0;
+            }
+            return RingBufferPipe.this.read(bytes, offset, length);
+        }
+
+        @Override
+        public int available() {
+            lock.lock();
+            try {
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                readClosed = true;
+                count = 0;
+                notFull.signalAll();
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+    }
+
+    private class PipeOutputStream extends OutputStream {
+
+        @Override
+        public void write(final int b) throws IOException {
+            RingBufferPipe.this.write(b);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            Objects.requireNonNull(bytes);
+            if (offset < 0 || length < 0 || length > bytes.length - offset) {
+                throw new IndexOutOfBoundsException();
+            }
+            RingBufferPipe.this.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                writeClosed = true;
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.jar.JarOutputStream;
+
+import org.ops4j.pax.tinybundles.Compression;
+
+/**
+ * Writes and compresses all entries one after another to a single jar stream.
+ */
+public class SequentialJarWriter extends JarWriter {
+
+    private final JarOutputStream jarOut;
+
+    /**
+     * @param outputStream the stream to write the jar to
+     * @param compression  the compression policy
+     * @throws IOException when creating the jar stream fails
+     */
+    public SequentialJarWriter(final OutputStream outputStream, final Compression compression) throws IOException {
+        super(compression);
+        this.jarOut = new JarOutputStream(outputStream);
+        configure(jarOut);
+    }
+
+    @Override
+    protected void put(final long size, final EntryWriter writer) throws IOException {
+        writer.write(jarOut);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        jarOut.finish();
+    }
+
+    @Override
+    public void close() throws IOException {
+        jarOut.close();
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.file.Path;
+
+import org.ops4j.store.Handle;
+
+/**
+ * A handle referencing its store entry until garbage collected, stores track leases with weak references.
+ */
+final class StoreLease implements Handle {
+
+    private final String id;
+
+    StoreLease(final String id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getIdentification() {
+        return id;
+    }
+
+    /**
+     * Creates a file URL which keeps this lease reachable.
+     *
+     * @param file the file of the entry
+     * @return the URL of the file
+     * @throws MalformedURLException when the path cannot be converted
+     */
+    URL toUrl(final Path file) throws MalformedURLException {
+        return new URL(null, file.toUri().toString(), new LeaseHandler(this));
+    }
+
+    /**
+     * Opens file URLs like the default handler.
+     */
+    private static final class LeaseHandler extends URLStreamHandler {
+
+        @SuppressWarnings("unused")
+        private final StoreLease lease;
+
+        private LeaseHandler(final StoreLease lease) {
+            this.lease = lease;
+        }
+
+        @Override
+        protected URLConnection openConnection(final URL url) throws IOException {
+            return new URL(url.toExternalForm()).openConnection();
+        }
+
+    }
+
+}
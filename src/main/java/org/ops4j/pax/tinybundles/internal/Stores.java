@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+import org.ops4j.store.Store;
+import org.ops4j.store.StoreFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resource stores configured by system properties.
+ * <p>
+ * The default store is the anonymous ops4j store writing each resource to a temporary file. Setting
+ * {@value #MEMORY_PROPERTY} to a memory budget in bytes selects a {@link TieredStore} instead, holding small
+ * resources in heap buffers (or direct buffers with {@value #DIRECT_PROPERTY}) and closed on shutdown. Otherwise setting
+ * {@value #DIRECTORY_PROPERTY} selects a deduplicating {@link ContentStore} in the directory, limited to
+ * {@value #DIRECTORY_SIZE_PROPERTY} bytes.
+ */
+public final class Stores {
+
+    public static final String MEMORY_PROPERTY = "org.ops4j.pax.tinybundles.store.memory";
+
+    public static final String DIRECT_PROPERTY = "org.ops4j.pax.tinybundles.store.direct";
+
+    public static final String DIRECTORY_PROPERTY = "org.ops4j.pax.tinybundles.store.directory";
+
+    public static final String DIRECTORY_SIZE_PROPERTY = "org.ops4j.pax.tinybundles.store.directory.size";
+
+    public static final long DEFAULT_DIRECTORY_SIZE = 1024L * 1024 * 1024;
+
+    private Stores() { //
+    }
+
+    /**
+     * Creates the resource store as configured by system properties.
+     *
+     * @return the resource store
+     * @throws IOException when creating the store fails
+     */
+    public static Store<InputStream> fromSystemProperties() throws IOException {
+        final Long memory = Long.getLong(MEMORY_PROPERTY);
+        if (Objects.nonNull(memory) && memory > 0) {
+            return closeOnShutdown(new TieredStore(memory, TieredStore.DEFAULT_SPILL_THRESHOLD, Boolean.getBoolean(DIRECT_PROPERTY)));
+        }
+        final String directory = System.getProperty(DIRECTORY_PROPERTY, "").trim();
+        if (!directory.isEmpty()) {
+            return new ContentStore(Paths.get(directory), Long.getLong(DIRECTORY_SIZE_PROPERTY, DEFAULT_DIRECTORY_SIZE));
+        }
+        return StoreFactory.anonymousStore();
+    }
+
+    /**
+     * Closes the default store on shutdown, so files spilled by entries still referenced are deleted.
+     */
+    private static TieredStore closeOnShutdown(final TieredStore store) {
+        final Logger logger = LoggerFactory.getLogger(Stores.class);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close resource store", e);
+            }
+        }, "tinybundles-store-shutdown"));
+        return store;
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * URLs of content generated by suppliers.
+ * <p>
+ * The handler of such an URL holds the supplier and calls it each time the URL is opened, so content is generated
+ * only when a builder reads it while writing the entry (or analyzing classes) and is streamed without a store.
+ */
+public final class SupplierUrls {
+
+    public static final String SCHEME = "tinybundles-supplier";
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private SupplierUrls() { //
+    }
+
+    /**
+     * Creates an URL of the content supplied by given supplier.
+     *
+     * @param supplier the supplier of the content, called each time the URL is opened
+     * @return the URL
+     */
+    public static URL of(final Supplier<? extends InputStream> supplier) {
+        try {
+            return new URL(null, String.format("%s:%s", SCHEME, IDS.incrementAndGet()), new SupplierHandler(supplier));
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class SupplierHandler extends URLStreamHandler {
+
+        private final Supplier<? extends InputStream> supplier;
+
+        private SupplierHandler(final Supplier<? extends InputStream> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        protected URLConnection openConnection(final URL url) {
+            return new URLConnection(url) {
+                @Override
+                public void connect() { //
+                }
+
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    final InputStream inputStream;
+                    try {
+                        inputStream = supplier.get();
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    } catch (RuntimeException e) {
+                        throw new IOException(String.format("Problem supplying content of %s", url), e);
+                    }
+                    if (Objects.isNull(inputStream)) {
+                        throw new IOException(String.format("No content supplied for %s", url));
+                    }
+                    return inputStream;
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link BundleCache} looking up bundles in a fast cache first and in a persistent cache second.
+ * Bundles found in the persistent cache are added to the fast cache, built bundles are added to both.
+ * <p>
+ * Count and size are the ones of the persistent cache.
+ */
+public class TieredBuildCache implements BundleCache {
+
+    private final BundleCache first;
+
+    private final BundleCache second;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param first  the fast cache, e.g. in memory
+     * @param second the persistent cache, e.g. on disk
+     */
+    public TieredBuildCache(final BundleCache first, final BundleCache second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    @Nullable
+    public InputStream get(final String key) throws IOException {
+        final InputStream cached = first.get(key);
+        if (Objects.nonNull(cached)) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        try (InputStream inputStream = second.get(key)) {
+            if (Objects.isNull(inputStream)) {
+                misses.incrementAndGet();
+                return null;
+            }
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ResourceTransfer.transfer(inputStream, outputStream);
+            final byte[] bundle = outputStream.toByteArray();
+            first.put(key, bundle);
+            hits.incrementAndGet();
+            return new ByteArrayInputStream(bundle);
+        }
+    }
+
+    @Override
+    public void put(final String key, final byte[] bundle) throws IOException {
+        first.put(key, bundle);
+        second.put(key, bundle);
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictions() {
+        return first.getEvictions() + second.getEvictions();
+    }
+
+    @Override
+    public int getCount() {
+        return second.getCount();
+    }
+
+    @Override
+    public long getSize() {
+        return second.getSize();
+    }
+
+    @Override
+    public void clear() {
+        first.clear();
+        second.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TieredBuildCache{first=%s, second=%s}", first, second);
+    }
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ops4j.store.Handle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A store keeping small entries in memory and spilling large entries to temporary files.
+ * <p>
+ * Entries up to the spill threshold are held in heap or direct buffers as long as the memory budget allows, all other
+ * entries are written to files in a temporary directory. Entries held in memory are located by buffer URLs (see
+ * {@link #getUrl(Handle)}), they have no location. Closing the store releases all entries and deletes the
+ * temporary directory, buffer URLs keep their content.
+ * <p>
+ * Handles and URLs reference their entry until garbage collected, then the entry is released: its memory is
+ * returned to the budget or its file is deleted.
+ */
+public class TieredStore implements UrlStore, Closeable {
+
+    public static final long DEFAULT_SPILL_THRESHOLD = 1024 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(TieredStore.class);
+
+    private final long memoryBudget;
+
+    private final long spillThreshold;
+
+    private final boolean direct;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong memoryUsed = new AtomicLong();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    // keeps the references of live handles reachable
+    private final Map<Reference<StoreLease>, String> leases = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<StoreLease> released = new ReferenceQueue<>();
+
+    private Path directory;
+
+    /**
+     * @param memoryBudget   the maximum number of bytes held in memory by all entries
+     * @param spillThreshold the maximum size in bytes of a single entry held in memory
+     * @param direct         true to hold entries in direct (off-heap) buffers
+     */
+    public TieredStore(final long memoryBudget, final long spillThreshold, final boolean direct) {
+        this.memoryBudget = memoryBudget;
+        this.spillThreshold = Math.min(spillThreshold, Integer.MAX_VALUE - 8);
+        this.direct = direct;
+    }
+
+    @Override
+    public Handle store(final InputStream inputStream) throws IOException {
+        expunge();
+        final long limit = Math.max(0, Math.min(spillThreshold, memoryBudget - memoryUsed.get()));
+        final ByteArrayOutputStream head = new ByteArrayOutputStream((int) Math.min(limit + 1, ResourceTransfer.BUFFER_SIZE));
+        final boolean complete = read(inputStream, head, limit + 1);
+        final String id = Long.toString(ids.incrementAndGet());
+        if (complete && reserve(head.size())) {
+            entries.put(id, new Entry(toBuffer(head.toByteArray())));
+            return lease(id);
+        }
+        final Path file = Files.createTempFile(directory(), "resource-", ".bin");
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            head.writeTo(outputStream);
+            ResourceTransfer.transfer(inputStream, outputStream);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        logger.debug("Spilled resource {} to {}", id, file);
+        entries.put(id, new Entry(file));
+        return lease(id);
+    }
+
+    private StoreLease lease(final String id) {
+        final StoreLease lease = new StoreLease(id);
+        leases.put(new WeakReference<>(lease, released), id);
+        return lease;
+    }
+
+    /**
+     * Releases the entries of garbage collected handles (and their URLs), spilled files are deleted.
+     */
+    private void expunge() {
+        Reference<? extends StoreLease> reference;
+        while (Objects.nonNull(reference = released.poll())) {
+            final String id = leases.remove(reference);
+            final Entry entry = Objects.isNull(id) ? null : entries.remove(id);
+            if (Objects.nonNull(entry)) {
+                release(entry);
+            }
+        }
+    }
+
+    private void release(final Entry entry) {
+        if (Objects.nonNull(entry.buffer)) {
+            memoryUsed.addAndGet(-entry.buffer.remaining());
+            return;
+        }
+        try {
+            Files.deleteIfExists(entry.file);
+        } catch (IOException e) {
+            logger.warn("Unable to delete spilled resource {}", entry.file, e);
+        }
+    }
+
+    /**
+     * Reads at most given number of bytes.
+     *
+     * @return true if the stream ended before the limit
+     */
+    private static boolean read(final InputStream inputStream, final ByteArrayOutputStream target, final long limit) throws IOException {
+        final byte[] buffer = new byte[(int) Math.min(limit, ResourceTransfer.BUFFER_SIZE)];
+        long remaining = limit;
+        while (remaining > 0) {
+            final int n = inputStream.read(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (n == -1) {
+                return true;
+            }
+            target.write(buffer, 0, n);
+            remaining -= n;
+        }
+        return false;
+    }
+
+    private boolean reserve(final long size) {
+        long used;
+        do {
+            used = memoryUsed.get();
+            if (used + size > memoryBudget) {
+                return false;
+            }
+        } while (!memoryUsed.compareAndSet(used, used + size));
+        return true;
+    }
+
+    private ByteBuffer toBuffer(final byte[] bytes) {
+        if (!direct) {
+            return ByteBuffer.wrap(bytes);
+        }
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        ((Buffer) buffer).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private synchronized Path directory() throws IOException {
+        if (Objects.isNull(directory)) {
+            directory = Files.createTempDirectory("tinybundles-store-");
+        }
+        return directory;
+    }
+
+    @Override
+    public InputStream load(final Handle handle) throws IOException {
+        expunge();
+        return entry(handle.getIdentification()).openStream();
+    }
+
+    /**
+     * Gets the URI of the spilled file, entries held in memory have no location and {@code null} is returned.
+     */
+    @Override
+    public URI getLocation(final Handle handle) throws IOException {
+        final Entry entry = entry(handle.getIdentification());
+        return Objects.nonNull(entry.file) ? entry.file.toUri() : null;
+    }
+
+    /**
+     * Gets an URL to open the entry with, entries held in memory get a buffer URL builders read without streaming.
+     * The URL references the entry as long as it is reachable.
+     */
+    @Override
+    public URL getUrl(final Handle handle) throws IOException {
+        expunge();
+        final String id = handle.getIdentification();
+        final Entry entry = entry(id);
+        final StoreLease lease = handle instanceof StoreLease ? (StoreLease) handle : lease(id);
+        if (Objects.nonNull(entry.file)) {
+            return lease.toUrl(entry.file);
+        }
+        return BufferUrls.of(entry.buffer, lease);
+    }
+
+    /**
+     * Gets the number of bytes held in memory.
+     *
+     * @return the number of bytes held in memory
+     */
+    public long getMemoryUsed() {
+        expunge();
+        return memoryUsed.get();
+    }
+
+    private Entry entry(final String id) throws IOException {
+        final Entry entry = entries.get(id);
+        if (Objects.isNull(entry)) {
+            throw new IOException(String.format("Unknown store entry %s", id));
+        }
+        return entry;
+    }
+
+    /**
+     * Releases all entries and deletes the spilled files.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        final List<Entry> released = new ArrayList<>(entries.values());
+        entries.clear();
+        memoryUsed.set(0);
+        leases.clear();
+        for (final Entry entry : released) {
+            if (Objects.nonNull(entry.file)) {
+                Files.deleteIfExists(entry.file);
+            }
+        }
+        if (Objects.nonNull(directory)) {
+            Files.deleteIfExists(directory);
+            directory = null;
+        }
+    }
+
+    private static final class Entry {
+
+        private final ByteBuffer buffer;
+
+        private final Path file;
+
+        private Entry(final ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.file = null;
+        }
+
+        private Entry(final Path file) {
+            this.buffer = null;
+            this.file = file;
+        }
+
+        private InputStream openStream() throws IOException {
+            return Objects.nonNull(buffer) ? new ByteBufferInputStream(buffer.duplicate()) : Files.newInputStream(file);
+        }
+
+    }
+
+}
@@ -19,12 +19,21 @@ package org.ops4j.pax.tinybundles.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
@@ -32,15 +41,18 @@ import java.util.jar.Manifest;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.ops4j.pax.tinybundles.BuildHandle;
 import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BundlePublisher;
+import org.ops4j.pax.tinybundles.BuiltBundle;
 import org.ops4j.pax.tinybundles.InnerClassStrategy;
 import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.TinyBundles;
+import org.ops4j.store.Handle;
 import org.ops4j.store.Store;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.Constants;
 
-import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
-
 /**
  * The default TinyBundle implementation.
  *
@@ -55,14 +67,28 @@ public class TinyBundleImpl implements TinyBundle {
 
     private final Store<InputStream> store;
 
+    private final Supplier<Builder> defaultBuilder;
+
     public TinyBundleImpl(final Store<InputStream> store) {
+        this(store, TinyBundles::bndBuilder);
+    }
+
+    /**
+     * @param store          the store for resources added as streams
+     * @param defaultBuilder the supplier of the builder used by {@link #build()}
+     */
+    public TinyBundleImpl(final Store<InputStream> store, final Supplier<Builder> defaultBuilder) {
         this.store = store;
+        this.defaultBuilder = defaultBuilder;
     }
 
     private void addManifestAttributes(final JarInputStream jarIn) {
+        addManifestAttributes(jarIn.getManifest());
+    }
+
+    private void addManifestAttributes(@Nullable final Manifest manifest) {
         // TODO: reading out just main headers will remove the other parts. Fix this with
         // TODO change m_headers to type Manifest natively.
-        final Manifest manifest = jarIn.getManifest();
         if (Objects.isNull(manifest)) {
             return;
         }
@@ -118,6 +144,29 @@ public class TinyBundleImpl implements TinyBundle {
         return readIn(jar, false);
     }
 
+    @Override
+    @NotNull
+    public TinyBundle readIn(@NotNull final Path jar) {
+        return readIn(jar, name -> true);
+    }
+
+    @Override
+    @NotNull
+    public TinyBundle readIn(@NotNull final Path jar, @NotNull final Predicate<String> filter) {
+        try {
+            final ZipSource source = ZipSource.open(jar);
+            addManifestAttributes(source.getManifest());
+            for (final String name : source.getNames()) {
+                if (filter.test(name)) {
+                    resources.put(name, source.getUrl(name));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Problem reading jar.", e);
+        }
+        return this;
+    }
+
     @Override
     @NotNull
     public TinyBundle addClass(@NotNull final Class<?> clazz) {
@@ -177,16 +226,49 @@ public class TinyBundleImpl implements TinyBundle {
     @NotNull
     public TinyBundle addResource(@NotNull final String path, @NotNull final InputStream resource) {
         try {
-            return addResource(path, store.getLocation(store.store(resource)).toURL());
+            final Handle handle = store.store(resource);
+            if (store instanceof UrlStore) {
+                // resources may be located by URLs with a handler of the store
+                return addResource(path, ((UrlStore) store).getUrl(handle));
+            }
+            return addResource(path, store.getLocation(handle).toURL());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    @NotNull
+    public TinyBundle addResource(@NotNull final String path, @NotNull final byte[] content) {
+        return addResource(path, ByteBuffer.wrap(content));
+    }
+
+    @Override
+    @NotNull
+    public TinyBundle addResource(@NotNull final String path, @NotNull final ByteBuffer content) {
+        return addResource(path, BufferUrls.of(content));
+    }
+
+    @Override
+    @NotNull
+    public TinyBundle addResource(@NotNull final String path, @NotNull final Path file) {
+        try {
+            return addResource(path, file.toUri().toURL());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    @NotNull
+    public TinyBundle addResource(@NotNull final String path, @NotNull final Supplier<? extends InputStream> content) {
+        return addResource(path, SupplierUrls.of(content));
+    }
+
     @Override
     @NotNull
     public InputStream build() {
-        return bndBuilder().build(resources, headers);
+        return defaultBuilder.get().build(resources, headers);
     }
 
     @Override
@@ -195,6 +277,90 @@ public class TinyBundleImpl implements TinyBundle {
         return builder.build(resources, headers);
     }
 
+    @Override
+    @NotNull
+    public BuildHandle buildHandle(@NotNull final Builder builder) {
+        return builder.buildHandle(resources, headers, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    @NotNull
+    public BuildHandle buildHandle(@NotNull final Builder builder, final long timeout, @NotNull final TimeUnit unit) {
+        return builder.buildHandle(resources, headers, timeout, unit);
+    }
+
+    @Override
+    @NotNull
+    public BundlePublisher publish(@NotNull final Builder builder, @NotNull final Executor executor) {
+        return new BuildPublisher(builder, new HashMap<>(resources), new HashMap<>(headers), executor);
+    }
+
+    @Override
+    @NotNull
+    public CompletableFuture<BuiltBundle> buildAsync(@NotNull final Builder builder, @NotNull final Executor executor) {
+        final Map<String, URL> resources = new HashMap<>(this.resources);
+        final Map<String, String> headers = new HashMap<>(this.headers);
+        final CompletableFuture<BuiltBundle> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone()) {
+                // cancelled
+                return;
+            }
+            try {
+                final BuiltBundle bundle = BuiltBundleImpl.build(builder, resources, headers, BuiltBundleImpl.DEFAULT_SPILL_THRESHOLD);
+                if (!future.complete(bundle)) {
+                    bundle.close();
+                }
+            } catch (Throwable t) {
+                // errors too, so the future never stays incomplete
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    @NotNull
+    public Manifest calculateManifest() throws IOException {
+        return calculateManifest(defaultBuilder.get());
+    }
+
+    @Override
+    @NotNull
+    public Manifest calculateManifest(@NotNull final Builder builder) throws IOException {
+        return builder.manifest(resources, headers);
+    }
+
+    @Override
+    public void writeTo(@NotNull final OutputStream target) throws IOException {
+        writeTo(target, defaultBuilder.get());
+    }
+
+    @Override
+    public void writeTo(@NotNull final OutputStream target, @NotNull final Builder builder) throws IOException {
+        builder.writeTo(resources, headers, target);
+    }
+
+    @Override
+    public void writeTo(@NotNull final Path target) throws IOException {
+        writeTo(target, defaultBuilder.get());
+    }
+
+    @Override
+    public void writeTo(@NotNull final Path target, @NotNull final Builder builder) throws IOException {
+        builder.writeTo(resources, headers, target);
+    }
+
+    @Override
+    public void writeTo(@NotNull final WritableByteChannel target) throws IOException {
+        writeTo(target, defaultBuilder.get());
+    }
+
+    @Override
+    public void writeTo(@NotNull final WritableByteChannel target, @NotNull final Builder builder) throws IOException {
+        builder.writeTo(resources, headers, target);
+    }
+
     @Override
     @NotNull
     public TinyBundle setHeader(@NotNull final String name, @NotNull final String value) {
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import aQute.bnd.osgi.EmbeddedResource;
+import aQute.bnd.osgi.Resource;
+import aQute.bnd.osgi.WriteResource;
+
+/**
+ * A lazy bnd {@link Resource} backed by an {@link URL}.
+ * The URL is not opened before bnd asks for the content. When the resource is written into the jar without having
+ * been analyzed before, the content is streamed from the URL without being buffered in memory.
+ */
+public class UrlResource extends WriteResource {
+
+    private final URL url;
+
+    public UrlResource(final URL url) {
+        this.url = url;
+    }
+
+    /**
+     * Creates a lazy bnd resource for the given URL.
+     * File and jar URLs are handled by bnd's own file and zip resources, buffer URLs by bnd's embedded resources,
+     * all other URLs are wrapped in an {@link UrlResource}.
+     *
+     * @param url the URL of the resource
+     * @return the bnd resource
+     * @throws IOException when a file or jar URL cannot be accessed
+     */
+    public static Resource of(final URL url) throws IOException {
+        final ByteBuffer buffer = BufferUrls.toBuffer(url);
+        if (Objects.nonNull(buffer)) {
+            return new EmbeddedResource(buffer, 0);
+        }
+        switch (url.getProtocol()) {
+            case "file":
+            case "jar":
+                return Resource.fromURL(url);
+            default:
+                return new UrlResource(url);
+        }
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    @Override
+    public void write(final OutputStream out) throws IOException {
+        ResourceTransfer.transfer(url, out);
+    }
+
+    @Override
+    public long lastModified() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UrlResource{url='%s'}", url);
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+import org.ops4j.store.Handle;
+import org.ops4j.store.Store;
+
+/**
+ * A store providing URLs for its entries, used instead of {@link Store#getLocation(Handle)} when adding resources.
+ * The URLs may carry a handler of the store, e.g. for entries without file or to track references to entries.
+ */
+public interface UrlStore extends Store<InputStream> {
+
+    /**
+     * Gets the URL to read the entry with.
+     *
+     * @param handle the handle of the entry
+     * @return the URL of the entry
+     * @throws IOException when the entry is unknown
+     */
+    URL getUrl(Handle handle) throws IOException;
+
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.internal;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A zip file whose entries are read on demand.
+ * <p>
+ * The central directory is read once when opening the source, entries are located by URLs with a handler of the
+ * source and read with random access (concurrently if builders do) when opened. The zip file is opened while builds
+ * (see {@link #lease(Collection)}) or streams of its entries use it and closed when the last of them is done, so no
+ * file descriptor is kept between builds. It must not be modified as long as the source or one of its URLs is in use.
+ * <p>
+ * For raw copies of unchanged entries the central directory is parsed again on first use to locate the local
+ * records, see {@link #toRawEntry(URL)}.
+ */
+public final class ZipSource {
+
+    public static final String SCHEME = "tinybundles-zip";
+
+    private static final int LOCSIG = 0x04034b50;
+
+    private static final int EXTSIG = 0x08074b50;
+
+    private static final int CENSIG = 0x02014b50;
+
+    private static final int ENDSIG = 0x06054b50;
+
+    private static final int LOCHDR = 30;
+
+    private static final int CENHDR = 46;
+
+    private static final int ENDHDR = 22;
+
+    private static final long ZIP64_MAGICVAL = 0xFFFFFFFFL;
+
+    private static final int ZIP64_MAGICCOUNT = 0xFFFF;
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private final Path path;
+
+    private final Manifest manifest;
+
+    // entry names (except the manifest) in the order of the central directory with their sizes
+    private final Map<String, Long> sizes;
+
+    private final String id = Long.toString(IDS.incrementAndGet());
+
+    private final Object lock = new Object();
+
+    // guarded by lock, open while users > 0
+    private ZipFile zipFile;
+
+    // guarded by lock, opened on first raw read while users > 0
+    private FileChannel channel;
+
+    // guarded by lock
+    private int users;
+
+    // guarded by this, read on first use
+    private Map<String, RawEntry> records;
+
+    private ZipSource(final Path path, final Manifest manifest, final Map<String, Long> sizes) {
+        this.path = path;
+        this.manifest = manifest;
+        this.sizes = sizes;
+    }
+
+    /**
+     * Reads the manifest and the central directory of the zip file, the file is closed afterwards.
+     *
+     * @param path the zip file
+     * @return the source
+     * @throws IOException when the file is not a readable zip file
+     */
+    public static ZipSource open(final Path path) throws IOException {
+        try (ZipFile zipFile = new ZipFile(path.toFile())) {
+            Manifest manifest = null;
+            final Map<String, Long> sizes = new LinkedHashMap<>();
+            final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                if (!JarFile.MANIFEST_NAME.equalsIgnoreCase(entry.getName())) {
+                    sizes.put(entry.getName(), entry.getSize());
+                } else if (JarFile.MANIFEST_NAME.equals(entry.getName())) {
+                    try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                        manifest = new Manifest(inputStream);
+                    }
+                }
+            }
+            return new ZipSource(path, manifest, Collections.unmodifiableMap(sizes));
+        }
+    }
+
+    /**
+     * Keeps the zip files of all given entry URLs open until the returned lease is closed, so a build reading many
+     * entries opens each zip file once. URLs of other schemes are ignored.
+     *
+     * @param urls the URLs
+     * @return the lease
+     * @throws IOException when opening a zip file fails
+     */
+    public static Closeable lease(final Collection<URL> urls) throws IOException {
+        final Set<ZipSource> sources = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final URL url : urls) {
+            if (SCHEME.equals(url.getProtocol())) {
+                final URLConnection connection = url.openConnection();
+                if (connection instanceof EntryConnection) {
+                    sources.add(((EntryConnection) connection).source());
+                }
+            }
+        }
+        final List<ZipSource> acquired = new ArrayList<>(sources.size());
+        try {
+            for (final ZipSource source : sources) {
+                source.acquire();
+                acquired.add(source);
+            }
+        } catch (IOException | RuntimeException e) {
+            acquired.forEach(ZipSource::release);
+            throw e;
+        }
+        final AtomicBoolean closed = new AtomicBoolean();
+        return () -> {
+            if (closed.compareAndSet(false, true)) {
+                acquired.forEach(ZipSource::release);
+            }
+        };
+    }
+
+    /**
+     * Gets the manifest of the zip file.
+     *
+     * @return the manifest or null if the zip file has none
+     */
+    public Manifest getManifest() {
+        return manifest;
+    }
+
+    /**
+     * Gets the names of all entries except the manifest in the order of the central directory.
+     *
+     * @return the entry names
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(new ArrayList<>(sizes.keySet()));
+    }
+
+    /**
+     * Gets an URL reading the entry with given name when opened.
+     *
+     * @param name the entry name
+     * @return the URL
+     * @throws IllegalArgumentException when the zip file has no entry with given name
+     */
+    public URL getUrl(final String name) {
+        if (!sizes.containsKey(name)) {
+            throw new IllegalArgumentException(String.format("Entry %s not found in %s", name, path));
+        }
+        try {
+            return new URL(null, String.format("%s:%s!/%s", SCHEME, id, name), new EntryHandler(name));
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(String.format("Invalid entry name %s", name), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ZipSource{file='%s'}", path);
+    }
+
+    /**
+     * Opens the zip file unless open already.
+     */
+    private ZipFile acquire() throws IOException {
+        synchronized (lock) {
+            if (users == 0) {
+                zipFile = new ZipFile(path.toFile());
+            }
+            users++;
+            return zipFile;
+        }
+    }
+
+    /**
+     * Closes the zip file (and the channel for raw reads) when the last user is done.
+     */
+    private void release() {
+        synchronized (lock) {
+            users--;
+            if (users > 0) {
+                return;
+            }
+            try (ZipFile closedFile = zipFile; FileChannel closedChannel = channel) {
+                zipFile = null;
+                channel = null;
+            } catch (IOException e) {
+                // nothing to do, the file was read already
+            }
+        }
+    }
+
+    /**
+     * Gets the channel for raw reads, opened once while the zip file is in use.
+     */
+    private FileChannel channel() throws IOException {
+        synchronized (lock) {
+            if (Objects.isNull(channel)) {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+            }
+            return channel;
+        }
+    }
+
+    /**
+     * Gets the raw entry of an URL created with {@link #getUrl(String)}.
+     *
+     * @param url the URL
+     * @return the raw entry or null if the URL is no entry URL or the entry cannot be copied raw (zip64)
+     * @throws IOException when reading the central directory fails
+     */
+    public static RawEntry toRawEntry(final URL url) throws IOException {
+        if (!SCHEME.equals(url.getProtocol())) {
+            return null;
+        }
+        final URLConnection connection = url.openConnection();
+        if (!(connection instanceof EntryConnection)) {
+            return null;
+        }
+        final EntryConnection entryConnection = (EntryConnection) connection;
+        return entryConnection.source().records().get(entryConnection.name);
+    }
+
+    /**
+     * Reads the central directory records of all entries which can be copied raw, once.
+     */
+    private synchronized Map<String, RawEntry> records() throws IOException {
+        if (Objects.nonNull(records)) {
+            return records;
+        }
+        records = new HashMap<>();
+        acquire();
+        try {
+            final FileChannel channel = channel();
+            final long size = channel.size();
+            final int tailLength = (int) Math.min(size, ENDHDR + 0xFFFF);
+            final byte[] tail = read(channel, size - tailLength, tailLength);
+            int end = -1;
+            for (int i = tailLength - ENDHDR; i >= 0; i--) {
+                if (getInt(tail, i) == ENDSIG && i + ENDHDR + getShort(tail, i + 20) == tailLength) {
+                    end = i;
+                    break;
+                }
+            }
+            if (end < 0) {
+                throw new IOException(String.format("No end of central directory in %s", path));
+            }
+            final int count = getShort(tail, end + 10);
+            final long cenSize = getUnsignedInt(tail, end + 12);
+            final long cenOffset = getUnsignedInt(tail, end + 16);
+            if (count == ZIP64_MAGICCOUNT || cenSize == ZIP64_MAGICVAL || cenOffset == ZIP64_MAGICVAL) {
+                // zip64 jars are not copied raw
+                return records;
+            }
+            final byte[] cen = read(channel, cenOffset, (int) cenSize);
+            int record = 0;
+            for (int i = 0; i < count; i++) {
+                if (getInt(cen, record) != CENSIG) {
+                    throw new IOException(String.format("Invalid central directory in %s", path));
+                }
+                final int nameLength = getShort(cen, record + 28);
+                final int length = CENHDR + nameLength + getShort(cen, record + 30) + getShort(cen, record + 32);
+                final long compressedSize = getUnsignedInt(cen, record + 20);
+                final long uncompressedSize = getUnsignedInt(cen, record + 24);
+                final long offset = getUnsignedInt(cen, record + 42);
+                if (compressedSize < Integer.MAX_VALUE / 2 && uncompressedSize != ZIP64_MAGICVAL && offset != ZIP64_MAGICVAL) {
+                    final String name = new String(cen, record + CENHDR, nameLength, StandardCharsets.UTF_8);
+                    final byte[] central = Arrays.copyOfRange(cen, record, record + length);
+                    // the offset gets relative to the copied local record
+                    putInt(central, 42, 0);
+                    records.put(name, new RawEntry(name, offset, compressedSize, getShort(cen, record + 8), central));
+                }
+                record += length;
+            }
+        } finally {
+            release();
+        }
+        return records;
+    }
+
+    private static byte[] read(final FileChannel channel, final long position, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                throw new EOFException();
+            }
+        }
+        return buffer.array();
+    }
+
+    private static int getShort(final byte[] bytes, final int index) {
+        return (bytes[index] & 0xff) | (bytes[index + 1] & 0xff) << 8;
+    }
+
+    private static int getInt(final byte[] bytes, final int index) {
+        return (bytes[index] & 0xff) | (bytes[index + 1] & 0xff) << 8 | (bytes[index + 2] & 0xff) << 16 | (bytes[index + 3] & 0xff) << 24;
+    }
+
+    private static long getUnsignedInt(final byte[] bytes, final int index) {
+        return getInt(bytes, index) & ZIP64_MAGICVAL;
+    }
+
+    private static void putInt(final byte[] bytes, final int index, final int value) {
+        bytes[index] = (byte) value;
+        bytes[index + 1] = (byte) (value >>> 8);
+        bytes[index + 2] = (byte) (value >>> 16);
+        bytes[index + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * An entry to be copied as is: its local header, compressed data and data descriptor and its central directory
+     * record.
+     */
+    public final class RawEntry {
+
+        private final String name;
+
+        private final long offset;
+
+        private final long compressedSize;
+
+        private final int flags;
+
+        private final byte[] central;
+
+        private RawEntry(final String name, final long offset, final long compressedSize, final int flags, final byte[] central) {
+            this.name = name;
+            this.offset = offset;
+            this.compressedSize = compressedSize;
+            this.flags = flags;
+            this.central = central;
+        }
+
+        /**
+         * Gets the entry name.
+         *
+         * @return the entry name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the central directory record with the offset of the local header set to zero.
+         *
+         * @return the central directory record
+         */
+        public byte[] getCentral() {
+            return central.clone();
+        }
+
+        /**
+         * Reads the local header, the compressed data and the data descriptor (if any) of the entry.
+         *
+         * @return the local record
+         * @throws IOException when reading fails or the local header does not match the central directory
+         */
+        public byte[] readLocal() throws IOException {
+            acquire();
+            try {
+                final FileChannel channel = channel();
+                final byte[] header = read(channel, offset, LOCHDR);
+                if (getInt(header, 0) != LOCSIG) {
+                    throw new IOException(String.format("Invalid local header of %s in %s", name, path));
+                }
+                final long dataEnd = offset + LOCHDR + getShort(header, 26) + getShort(header, 28) + compressedSize;
+                long length = dataEnd - offset;
+                if ((flags & 8) != 0) {
+                    // data descriptor with optional signature
+                    length += getInt(read(channel, dataEnd, 4), 0) == EXTSIG ? 16 : 12;
+                }
+                return read(channel, offset, (int) length);
+            } finally {
+                release();
+            }
+        }
+
+    }
+
+    /**
+     * Opens entries like the zip file does, URLs with this handler keep the source reachable.
+     */
+    private class EntryHandler extends URLStreamHandler {
+
+        private final String name;
+
+        private EntryHandler(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected URLConnection openConnection(final URL url) {
+            return new EntryConnection(url, name);
+        }
+
+    }
+
+    private class EntryConnection extends URLConnection {
+
+        private final String name;
+
+        private EntryConnection(final URL url, final String name) {
+            super(url);
+            this.name = name;
+        }
+
+        private ZipSource source() {
+            return ZipSource.this;
+        }
+
+        @Override
+        public void connect() { //
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            final ZipFile file = acquire();
+            try {
+                final ZipEntry entry = file.getEntry(name);
+                if (Objects.isNull(entry)) {
+                    throw new FileNotFoundException(String.format("Entry %s not found in %s", name, path));
+                }
+                return new EntryInputStream(file.getInputStream(entry));
+            } catch (IOException | RuntimeException e) {
+                release();
+                throw e;
+            }
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return sizes.get(name);
+        }
+
+    }
+
+    /**
+     * Stream of an entry, the zip file is released when the stream is closed.
+     */
+    private class EntryInputStream extends FilterInputStream {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private EntryInputStream(final InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed.compareAndSet(false, true)) {
+                try {
+                    super.close();
+                } finally {
+                    release();
+                }
+            }
+        }
+
+    }
+
+}
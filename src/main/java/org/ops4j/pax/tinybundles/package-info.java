@@ -22,7 +22,7 @@
  * @since 1.0
  */
 @Export
-@Version("1.0.0")
+@Version("1.1.0")
 package org.ops4j.pax.tinybundles;
 
 import org.osgi.annotation.bundle.Export;
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldImpl;
+import org.ops4j.pax.tinybundles.internal.BatchBuild;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.buildAll;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getManifest;
+
+public class BatchBuildTest {
+
+    private static List<TinyBundle> createTestBundles(final int count) {
+        final List<TinyBundle> bundles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            bundles.add(bundle()
+                .addClass(HelloWorld.class)
+                .addClass(HelloWorldImpl.class)
+                .setHeader(Constants.BUNDLE_SYMBOLICNAME, String.format("batch.%s", i)));
+        }
+        return bundles;
+    }
+
+    @Test
+    public void buildAllBundles() throws IOException {
+        final List<CompletableFuture<InputStream>> results = buildAll(createTestBundles(50), bndBuilder());
+        assertThat(results.size(), is(50));
+        for (int i = 0; i < results.size(); i++) {
+            final String symbolicName = getManifest(results.get(i).join()).getMainAttributes().getValue(Constants.BUNDLE_SYMBOLICNAME);
+            assertThat(symbolicName, is(String.format("batch.%s", i)));
+        }
+    }
+
+    @Test
+    public void failedBuild() throws IOException {
+        final List<TinyBundle> bundles = createTestBundles(3);
+        bundles.get(1).addResource("missing.txt", new URL("file:/missing/resource.txt"));
+        final List<CompletableFuture<InputStream>> results = buildAll(bundles, rawBuilder());
+        assertThat(getManifest(results.get(0).join()).getMainAttributes().getValue(Constants.BUNDLE_SYMBOLICNAME), is("batch.0"));
+        assertThat(getManifest(results.get(2).join()).getMainAttributes().getValue(Constants.BUNDLE_SYMBOLICNAME), is("batch.2"));
+        try {
+            results.get(1).join();
+            throw new AssertionError("build should fail");
+        } catch (CompletionException e) {
+            assertThat(e.getCause(), instanceOf(IOException.class));
+        }
+    }
+
+    @Test
+    public void boundedConcurrency() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Builder rawBuilder = rawBuilder();
+        final Builder builder = new Builder() {
+            @Override
+            @NotNull
+            public InputStream build(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void writeTo(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, @NotNull final OutputStream target) throws IOException {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                    rawBuilder.writeTo(resources, headers, target);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<CompletableFuture<InputStream>> results = BatchBuild.buildAll(createTestBundles(40), builder, executor, 3);
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+            assertThat(maxRunning.get() <= 3, is(true));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void failedBuildWithError() {
+        final Builder builder = new Builder() {
+            @Override
+            @NotNull
+            public InputStream build(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void writeTo(@NotNull final Map<String, URL> resources, @NotNull final Map<String, String> headers, @NotNull final OutputStream target) {
+                throw new NoClassDefFoundError("missing");
+            }
+        };
+        final List<CompletableFuture<InputStream>> results = buildAll(createTestBundles(3), builder);
+        for (final CompletableFuture<InputStream> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                throw new AssertionError("build should fail");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(NoClassDefFoundError.class));
+            } catch (InterruptedException | TimeoutException e) {
+                throw new AssertionError("build should complete", e);
+            }
+        }
+    }
+
+}
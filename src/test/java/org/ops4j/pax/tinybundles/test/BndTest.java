@@ -17,24 +17,36 @@
  */
 package org.ops4j.pax.tinybundles.test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
 import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 
 import org.junit.Test;
+import org.ops4j.pax.tinybundles.InnerClassStrategy;
+import org.ops4j.pax.tinybundles.TinyBundle;
 import org.ops4j.pax.tinybundles.demo.HelloWorld;
 import org.ops4j.pax.tinybundles.demo.ds.DsService;
 import org.ops4j.pax.tinybundles.demo.internal.HelloWorldActivator;
 import org.ops4j.pax.tinybundles.demo.internal.HelloWorldImpl;
+import org.ops4j.pax.tinybundles.internal.ClassFinder;
 import org.ops4j.pax.tinybundles.internal.Info;
 import org.osgi.framework.Constants;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
 import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
 import static org.ops4j.pax.tinybundles.test.JarHelper.getManifest;
 
 /**
@@ -69,6 +81,43 @@ public class BndTest {
         assertThat(attributes.getValue("Service-Component"), is("OSGI-INF/org.ops4j.pax.tinybundles.demo.ds.DsService.xml"));
     }
 
+    private static byte[] readAll(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int n;
+        while ((n = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, n);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void bndPreloadedClasses() throws IOException {
+        final Class<?>[] classes = {
+            org.junit.Assert.class, org.junit.Assume.class, org.junit.Test.class, org.junit.Before.class,
+            org.junit.After.class, org.junit.Ignore.class, org.junit.Rule.class, org.junit.ClassRule.class,
+            org.junit.BeforeClass.class, org.junit.AfterClass.class, org.junit.ComparisonFailure.class,
+            org.junit.runner.JUnitCore.class, org.junit.runner.Request.class, org.junit.runner.Result.class,
+            org.junit.runner.Runner.class, org.junit.runner.Description.class, org.junit.runner.RunWith.class,
+            org.junit.rules.TestRule.class, org.junit.rules.TemporaryFolder.class, HelloWorldImpl.class
+        };
+        final TinyBundle bundle = bundle().setHeader(Constants.EXPORT_PACKAGE, "org.junit.*");
+        for (final Class<?> clazz : classes) {
+            bundle.addClass(clazz, InnerClassStrategy.NONE);
+        }
+        final byte[] content = readAll(bundle.build(bndBuilder()));
+        final Attributes attributes = getManifest(new ByteArrayInputStream(content)).getMainAttributes();
+        assertThat(attributes.getValue(Constants.IMPORT_PACKAGE), containsString("org.hamcrest"));
+        assertThat(attributes.getValue(Constants.IMPORT_PACKAGE), containsString("org.ops4j.pax.tinybundles.demo"));
+        final Map<String, byte[]> entries = getEntries(new ByteArrayInputStream(content));
+        for (final Class<?> clazz : classes) {
+            final String path = ClassFinder.asResource(clazz);
+            try (InputStream inputStream = clazz.getClassLoader().getResourceAsStream(path)) {
+                assertThat(path, entries.get(path), is(readAll(inputStream)));
+            }
+        }
+    }
+
     @Test
     public void createTestAllDefault() throws IOException {
         final InputStream bundle = bundle()
@@ -121,6 +170,47 @@ public class BndTest {
         assertThat(attributes.getValue(Constants.EXPORT_PACKAGE), is(String.format("%s;version=\"0.0.0\"", HelloWorld.class.getPackage().getName())));
     }
 
+    @Test
+    public void bndResources() throws IOException {
+        final byte[] content = "Hello TinyBundles".getBytes(StandardCharsets.UTF_8);
+        final InputStream bundle = bundle()
+            .addClass(HelloWorld.class)
+            .addResource("data/hello.txt", new ByteArrayInputStream(content))
+            .addResource("data/", new ByteArrayInputStream(new byte[0]))
+            .build(bndBuilder());
+        final Map<String, byte[]> entries = getEntries(bundle);
+        assertThat(entries.get("data/hello.txt"), is(content));
+        assertThat(entries.containsKey(ClassFinder.asResource(HelloWorld.class)), is(true));
+    }
+
+    @Test
+    public void bndWriteToPath() throws IOException {
+        final Path path = Files.createTempFile("test", ".jar");
+        try {
+            bundle()
+                .addClass(HelloWorldActivator.class)
+                .addClass(HelloWorld.class)
+                .addClass(HelloWorldImpl.class)
+                .setHeader(Constants.BUNDLE_SYMBOLICNAME, "MyFirstTinyBundle")
+                .setHeader(Constants.BUNDLE_ACTIVATOR, HelloWorldActivator.class.getName())
+                .writeTo(path, bndBuilder());
+            try (InputStream bundle = Files.newInputStream(path)) {
+                final Attributes attributes = getManifest(bundle).getMainAttributes();
+                assertThat(attributes.getValue(Constants.BUNDLE_SYMBOLICNAME), is("MyFirstTinyBundle"));
+                assertThat(attributes.getValue(Constants.IMPORT_PACKAGE), is("org.osgi.framework,org.slf4j"));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void bndWriteToMissingResource() throws IOException {
+        bundle()
+            .addResource("missing.txt", new URL("file:/missing/resource.txt"))
+            .writeTo(new ByteArrayOutputStream(), bndBuilder());
+    }
+
     @Test
     public void modifyTest() throws IOException {
         final InputStream bundle1 = bundle()
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.BuiltBundle;
+import org.ops4j.pax.tinybundles.Compression;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getManifest;
+
+public class BuildAsyncTest {
+
+    private static byte[] readAll(final InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, n);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    private static String sha256(final byte[] bytes) throws NoSuchAlgorithmException {
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static void assertContent(final BuiltBundle built) throws Exception {
+        final byte[] bytes = readAll(built.openStream());
+        assertThat(built.getSize(), is((long) bytes.length));
+        assertThat(built.getSha256(), is(sha256(bytes)));
+        final ByteBuffer buffer = built.toByteBuffer();
+        final byte[] buffered = new byte[buffer.remaining()];
+        buffer.get(buffered);
+        assertThat(buffered, is(bytes));
+        assertThat(Files.readAllBytes(built.toPath()), is(bytes));
+    }
+
+    @Test
+    public void buildAsync() throws Exception {
+        final TinyBundle bundle = bundle()
+            .addClass(HelloWorld.class)
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "async");
+        final BuiltBundle built = bundle.buildAsync(bndBuilder(), ForkJoinPool.commonPool()).get();
+        bundle.setHeader(Constants.BUNDLE_SYMBOLICNAME, "modified");
+        try {
+            assertContent(built);
+            assertThat(getManifest(built.openStream()).getMainAttributes().getValue(Constants.BUNDLE_SYMBOLICNAME), is("async"));
+            final Path path = built.toPath();
+            built.close();
+            assertThat(Files.exists(path), is(false));
+        } finally {
+            built.close();
+        }
+    }
+
+    @Test
+    public void buildAsyncLarge() throws Exception {
+        final byte[] content = new byte[3 * 1024 * 1024];
+        new Random(1).nextBytes(content);
+        final BuilderOptions options = BuilderOptions.defaults().compression(Compression.stored());
+        final BuiltBundle built = bundle()
+            .addResource("data.bin", new ByteArrayInputStream(content))
+            .buildAsync(rawBuilder(options), Runnable::run)
+            .get();
+        try {
+            final Path path = built.toPath();
+            assertThat(Files.size(path), is(built.getSize()));
+            assertContent(built);
+            assertThat(getEntries(built.openStream()).get("data.bin"), is(content));
+            built.close();
+            assertThat(Files.exists(path), is(false));
+        } finally {
+            built.close();
+        }
+    }
+
+    @Test
+    public void buildAsyncFailure() throws IOException {
+        try {
+            bundle()
+                .addResource("missing.txt", new URL("file:/missing/resource.txt"))
+                .buildAsync(rawBuilder(), ForkJoinPool.commonPool())
+                .get();
+            throw new AssertionError("build should fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IOException.class));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void buildAsyncError() throws Exception {
+        final URLStreamHandler handler = new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(final URL url) {
+                throw new LinkageError("broken");
+            }
+        };
+        try {
+            bundle()
+                .addResource("broken.txt", new URL(null, "broken:resource", handler))
+                .buildAsync(rawBuilder(), ForkJoinPool.commonPool())
+                .get(10, TimeUnit.SECONDS);
+            throw new AssertionError("build should fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(LinkageError.class));
+        }
+    }
+
+}
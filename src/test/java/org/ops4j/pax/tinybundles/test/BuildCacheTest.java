@@ -0,0 +1,215 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.BuildCache;
+import org.ops4j.pax.tinybundles.BuildHandle;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.TinyBundlesFactory;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldActivator;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldImpl;
+import org.ops4j.pax.tinybundles.internal.BuildExecutors;
+import org.ops4j.pax.tinybundles.internal.DefaultTinyBundlesFactory;
+import org.ops4j.pax.tinybundles.internal.MemoryBuildCache;
+import org.ops4j.pax.tinybundles.internal.RingBufferPipe;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BuildCacheTest {
+
+    private static TinyBundlesFactory createFactory(final MemoryBuildCache cache) {
+        return new DefaultTinyBundlesFactory(BuildExecutors.defaultExecutor(), RingBufferPipe.DEFAULT_CAPACITY, cache);
+    }
+
+    private static TinyBundle createTestBundle(final TinyBundlesFactory factory, final String version) {
+        return factory.bundle()
+            .addClass(HelloWorldActivator.class)
+            .addClass(HelloWorld.class)
+            .addClass(HelloWorldImpl.class)
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "cached")
+            .setHeader(Constants.BUNDLE_VERSION, version)
+            .setHeader(Constants.BUNDLE_ACTIVATOR, HelloWorldActivator.class.getName());
+    }
+
+    private static byte[] read(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int n;
+        while ((n = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, n);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void hitsAndMisses() throws IOException {
+        final TinyBundlesFactory factory = createFactory(new MemoryBuildCache(64 * 1024 * 1024));
+        final BuildCache cache = factory.buildCache();
+        final byte[] first = read(createTestBundle(factory, "1.0.0").build());
+        assertThat(cache.getMisses(), is(1L));
+        final byte[] second = read(createTestBundle(factory, "1.0.0").build());
+        assertThat(cache.getHits(), is(1L));
+        assertThat(second, is(first));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        createTestBundle(factory, "1.0.0").writeTo(outputStream);
+        assertThat(outputStream.toByteArray(), is(first));
+        assertThat(cache.getHits(), is(2L));
+
+        read(createTestBundle(factory, "2.0.0").build());
+        read(createTestBundle(factory, "1.0.0").build(factory.rawBuilder()));
+        assertThat(cache.getMisses(), is(3L));
+        assertThat(cache.getCount(), is(3));
+        cache.clear();
+        assertThat(cache.getCount(), is(0));
+        assertThat(cache.getSize(), is(0L));
+    }
+
+    @Test
+    public void contentChange() throws IOException {
+        final TinyBundlesFactory factory = createFactory(new MemoryBuildCache(64 * 1024 * 1024));
+        final Path file = Files.createTempFile("cached", ".txt");
+        try {
+            Files.write(file, "first".getBytes());
+            final byte[] first = read(factory.bundle().addResource("content.txt", file.toUri().toURL()).setHeader(Constants.BUNDLE_SYMBOLICNAME, "content").build());
+            Files.write(file, "second".getBytes());
+            final byte[] second = read(factory.bundle().addResource("content.txt", file.toUri().toURL()).setHeader(Constants.BUNDLE_SYMBOLICNAME, "content").build());
+            assertThat(second, is(not(first)));
+            assertThat(factory.buildCache().getMisses(), is(2L));
+            assertThat(factory.buildCache().getHits(), is(0L));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void classpathChange() throws IOException {
+        final TinyBundlesFactory factory = createFactory(new MemoryBuildCache(64 * 1024 * 1024));
+        final Path jar = Files.createTempFile("classpath", ".jar");
+        try {
+            createTestBundle(createFactory(null), "1.0.0").writeTo(jar, createFactory(null).rawBuilder());
+            read(createTestBundle(factory, "1.0.0").setHeader("-classpath", jar.toString()).build());
+            read(createTestBundle(factory, "1.0.0").setHeader("-classpath", jar.toString()).build());
+            assertThat(factory.buildCache().getHits(), is(1L));
+            createTestBundle(createFactory(null), "2.0.0").addResource("more.txt", new ByteArrayInputStream(new byte[64])).writeTo(jar, createFactory(null).rawBuilder());
+            read(createTestBundle(factory, "1.0.0").setHeader("-classpath", jar.toString()).build());
+            assertThat(factory.buildCache().getMisses(), is(2L));
+        } finally {
+            Files.delete(jar);
+        }
+    }
+
+    @Test
+    public void generatedSymbolicName() throws IOException {
+        final TinyBundlesFactory factory = createFactory(new MemoryBuildCache(64 * 1024 * 1024));
+        final byte[] first = read(factory.bundle().addClass(HelloWorld.class).build());
+        final byte[] second = read(factory.bundle().addClass(HelloWorld.class).build());
+        assertThat(second, is(not(first)));
+        assertThat(factory.buildCache().getCount(), is(0));
+        final BuilderOptions reproducible = BuilderOptions.defaults().reproducible(true);
+        read(factory.bundle().addClass(HelloWorld.class).build(factory.bndBuilder(reproducible)));
+        read(factory.bundle().addClass(HelloWorld.class).build(factory.bndBuilder(reproducible)));
+        assertThat(factory.buildCache().getHits(), is(1L));
+    }
+
+    @Test
+    public void lazyStart() throws IOException {
+        final TinyBundlesFactory factory = createFactory(new MemoryBuildCache(64 * 1024 * 1024));
+        final BuilderOptions options = BuilderOptions.defaults().lazyStart(true);
+        final byte[] first;
+        try (InputStream inputStream = createTestBundle(factory, "1.0.0").build(factory.bndBuilder(options))) {
+            assertThat(factory.buildCache().getMisses(), is(0L));
+            first = read(inputStream);
+        }
+        assertThat(factory.buildCache().getMisses(), is(1L));
+        createTestBundle(factory, "1.0.0").build(factory.bndBuilder(options)).close();
+        assertThat(factory.buildCache().getHits(), is(0L));
+        try (InputStream inputStream = createTestBundle(factory, "1.0.0").build(factory.bndBuilder(options))) {
+            assertThat(read(inputStream), is(first));
+        }
+        assertThat(factory.buildCache().getHits(), is(1L));
+    }
+
+    @Test
+    public void evictionAndSpill() throws IOException {
+        final byte[] bundle = read(createTestBundle(createFactory(null), "0.0.0").build());
+        final MemoryBuildCache cache = new MemoryBuildCache(bundle.length * 5 / 2, 0);
+        final TinyBundlesFactory factory = createFactory(cache);
+        final byte[] first = read(createTestBundle(factory, "1.0.0").build());
+        read(createTestBundle(factory, "2.0.0").build());
+        assertThat(read(createTestBundle(factory, "1.0.0").build()), is(first));
+        read(createTestBundle(factory, "3.0.0").build());
+        assertThat(cache.getEvictions(), is(1L));
+        assertThat(cache.getCount(), is(2));
+        // 2.0.0 was least recently used
+        read(createTestBundle(factory, "1.0.0").build());
+        assertThat(cache.getHits(), is(2L));
+        read(createTestBundle(factory, "2.0.0").build());
+        assertThat(cache.getMisses(), is(4L));
+        cache.clear();
+    }
+
+    @Test
+    public void buildHandle() throws IOException {
+        final TinyBundlesFactory factory = createFactory(new MemoryBuildCache(64 * 1024 * 1024));
+        final byte[] first;
+        try (BuildHandle handle = createTestBundle(factory, "1.0.0").buildHandle(factory.bndBuilder(), 1, TimeUnit.MINUTES)) {
+            first = read(handle.getInputStream());
+        }
+        assertThat(factory.buildCache().getMisses(), is(1L));
+        assertThat(factory.buildCache().getCount(), is(1));
+        try (BuildHandle handle = createTestBundle(factory, "1.0.0").buildHandle(factory.bndBuilder(), 1, TimeUnit.MINUTES)) {
+            assertThat(handle.isDone(), is(true));
+            assertThat(read(handle.getInputStream()), is(first));
+        }
+        assertThat(factory.buildCache().getHits(), is(1L));
+        assertThat(read(createTestBundle(factory, "1.0.0").build()), is(first));
+        assertThat(factory.buildCache().getHits(), is(2L));
+    }
+
+    @Test
+    public void optionsInKey() throws IOException {
+        final TinyBundlesFactory factory = createFactory(new MemoryBuildCache(64 * 1024 * 1024));
+        final Path jar = Files.createTempFile("source", ".jar");
+        try {
+            createTestBundle(createFactory(null), "1.0.0").writeTo(jar, createFactory(null).rawBuilder());
+            final BuilderOptions options = BuilderOptions.defaults().reproducible(true);
+            final byte[] copied = read(factory.bundle().readIn(jar).build(factory.rawBuilder(options.passthrough(true))));
+            final byte[] rebuilt = read(factory.bundle().readIn(jar).build(factory.rawBuilder(options.passthrough(false))));
+            assertThat(rebuilt, is(not(copied)));
+            assertThat(factory.buildCache().getMisses(), is(2L));
+            assertThat(factory.buildCache().getHits(), is(0L));
+        } finally {
+            Files.delete(jar);
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.Attributes;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.BuildHandle;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.TinyBundlesFactory;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.internal.BuildExecutors;
+import org.ops4j.pax.tinybundles.internal.DefaultTinyBundlesFactory;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getManifest;
+
+public class BuildExecutorsTest {
+
+    @Test
+    public void defaultExecutorUsesNamedDaemonThreads() throws Exception {
+        final CompletableFuture<Thread> future = new CompletableFuture<>();
+        BuildExecutors.defaultExecutor().execute(() -> future.complete(Thread.currentThread()));
+        final Thread thread = future.get();
+        assertThat(thread.getName(), startsWith("tinybundles-"));
+        assertThat(thread.isDaemon(), is(true));
+    }
+
+    @Test
+    public void buildersUseFactoryExecutor() throws IOException {
+        final ExecutorService pool = BuildExecutors.newBoundedExecutor(2);
+        final AtomicInteger tasks = new AtomicInteger();
+        try {
+            final TinyBundlesFactory factory = new DefaultTinyBundlesFactory(task -> {
+                tasks.incrementAndGet();
+                pool.execute(task);
+            });
+            for (int i = 0; i < 10; i++) {
+                final Attributes raw = getManifest(factory.bundle().symbolicName("raw").build(factory.rawBuilder())).getMainAttributes();
+                assertThat(raw.getValue(Constants.BUNDLE_SYMBOLICNAME), is("raw"));
+                final Attributes bnd = getManifest(factory.bundle().addClass(HelloWorld.class).symbolicName("bnd").build()).getMainAttributes();
+                assertThat(bnd.getValue(Constants.BUNDLE_SYMBOLICNAME), is("bnd"));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(tasks.get(), is(20));
+    }
+
+    @Test
+    public void preloadClassesOnBusyExecutor() throws Exception {
+        final ExecutorService pool = BuildExecutors.newBoundedExecutor(1);
+        try {
+            final TinyBundlesFactory factory = new DefaultTinyBundlesFactory(pool);
+            final Path junit = Paths.get(Test.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            final TinyBundle bundle = factory.bundle().readIn(junit).setHeader(Constants.EXPORT_PACKAGE, "junit.*,org.junit.*");
+            // the analysis runs on the only thread of the pool, so classes are loaded by the build thread itself
+            try (BuildHandle handle = bundle.buildHandle(factory.bndBuilder(), 1, TimeUnit.MINUTES)) {
+                final Attributes bnd = getManifest(handle.getInputStream()).getMainAttributes();
+                assertThat(bnd.getValue(Constants.EXPORT_PACKAGE), containsString("org.junit"));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.BuildHandle;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.internal.BuildTask;
+import org.ops4j.pax.tinybundles.internal.RingBufferPipe;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+
+public class BuildHandleTest {
+
+    private static byte[] readAll(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int n;
+        while ((n = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, n);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static Throwable readFailure(final BuildHandle handle) {
+        try {
+            readAll(handle.getInputStream());
+        } catch (IOException e) {
+            return e.getCause();
+        }
+        fail("Reading a cancelled build should fail.");
+        return null;
+    }
+
+    private static void awaitDone(final BuildHandle handle) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!handle.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(handle.isDone(), is(true));
+    }
+
+    private static TinyBundle slowBundle(final BlockingStream stream) throws IOException {
+        final URL url = new URL(null, "blocking:resource", new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(final URL u) {
+                return new URLConnection(u) {
+                    @Override
+                    public void connect() {
+                    }
+
+                    @Override
+                    public InputStream getInputStream() {
+                        stream.opened.countDown();
+                        return stream;
+                    }
+                };
+            }
+        });
+        return bundle()
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "slow")
+            .addClass(HelloWorld.class)
+            .addResource("slow.txt", url);
+    }
+
+    @Test
+    public void completeBuild() throws Exception {
+        for (final Builder builder : new Builder[]{rawBuilder(), bndBuilder()}) {
+            try (BuildHandle handle = bundle().addClass(HelloWorld.class).buildHandle(builder, 1, TimeUnit.MINUTES)) {
+                final byte[] bytes = readAll(handle.getInputStream());
+                awaitDone(handle);
+                assertThat(handle.isCancelled(), is(false));
+                final Map<String, byte[]> entries = getEntries(new ByteArrayInputStream(bytes));
+                assertThat(entries.containsKey("org/ops4j/pax/tinybundles/demo/HelloWorld.class"), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void cancelClosesResourceStreams() throws Exception {
+        for (final Builder builder : new Builder[]{rawBuilder(), bndBuilder()}) {
+            final BlockingStream stream = new BlockingStream();
+            final BuildHandle handle = slowBundle(stream).buildHandle(builder);
+            assertThat(stream.opened.await(10, TimeUnit.SECONDS), is(true));
+            assertThat(handle.isDone(), is(false));
+            handle.cancel();
+            assertThat(handle.isCancelled(), is(true));
+            assertThat(readFailure(handle), instanceOf(CancellationException.class));
+            assertThat(stream.closed.await(10, TimeUnit.SECONDS), is(true));
+            handle.close();
+        }
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        for (final Builder builder : new Builder[]{rawBuilder(), bndBuilder()}) {
+            final BlockingStream stream = new BlockingStream();
+            try (BuildHandle handle = slowBundle(stream).buildHandle(builder, 100, TimeUnit.MILLISECONDS)) {
+                assertThat(readFailure(handle), instanceOf(TimeoutException.class));
+                assertThat(handle.isCancelled(), is(true));
+                // the build may time out before the stream is opened, it is not opened then
+                awaitDone(handle);
+                assertThat(stream.opened.getCount() == 1 || stream.closed.await(10, TimeUnit.SECONDS), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void closeStreamCancelsBuild() throws Exception {
+        final BlockingStream stream = new BlockingStream();
+        final BuildHandle handle = slowBundle(stream).buildHandle(rawBuilder());
+        assertThat(stream.opened.await(10, TimeUnit.SECONDS), is(true));
+        handle.getInputStream().close();
+        assertThat(handle.isCancelled(), is(true));
+        assertThat(stream.closed.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void streamHandleDoneWhenRead() throws IOException {
+        final BuildHandle handle = BuildHandle.of(new ByteArrayInputStream(new byte[16]));
+        assertThat(handle.isDone(), is(false));
+        assertThat(readAll(handle.getInputStream()).length, is(16));
+        assertThat(handle.isDone(), is(true));
+        assertThat(handle.isCancelled(), is(false));
+        final BuildHandle closed = BuildHandle.of(new ByteArrayInputStream(new byte[16]));
+        closed.getInputStream().close();
+        assertThat(closed.isDone(), is(true));
+    }
+
+    @Test
+    public void cancelAfterStartBeforeRunning() {
+        final List<Runnable> submitted = new ArrayList<>();
+        final AtomicBoolean ran = new AtomicBoolean();
+        final BuildTask task = new BuildTask(new RingBufferPipe(), (buildTask, pipe) -> ran.set(true), submitted::add);
+        task.start();
+        task.cancel();
+        assertThat(task.isDone(), is(false));
+        submitted.forEach(Runnable::run);
+        assertThat(ran.get(), is(false));
+        assertThat(task.isDone(), is(true));
+    }
+
+    /**
+     * A stream blocking on read until closed or interrupted.
+     */
+    private static class BlockingStream extends InputStream {
+
+        private final CountDownLatch opened = new CountDownLatch(1);
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public int read() throws IOException {
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            throw new IOException("Stream closed.");
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+    }
+
+}
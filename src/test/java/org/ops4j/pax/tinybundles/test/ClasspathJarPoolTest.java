@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.Attributes;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldImpl;
+import org.ops4j.pax.tinybundles.internal.BndBuilder;
+import org.ops4j.pax.tinybundles.internal.ClasspathJarPool;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+
+public class ClasspathJarPoolTest {
+
+    private static Path createApiJar(final String version) throws IOException {
+        final Path jar = Files.createTempFile("api", ".jar");
+        bundle()
+            .addClass(HelloWorld.class)
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "api")
+            .setHeader(Constants.EXPORT_PACKAGE, String.format("%s;version=%s", HelloWorld.class.getPackage().getName(), version))
+            .writeTo(jar);
+        return jar;
+    }
+
+    private static TinyBundle createTestBundle(final Path classpath) {
+        return bundle()
+            .addClass(HelloWorldImpl.class)
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "impl")
+            .setHeader("-classpath", classpath.toString());
+    }
+
+    @Test
+    public void sharedJars() throws Exception {
+        final Path file = createApiJar("1.0.0");
+        try (ClasspathJarPool pool = new ClasspathJarPool()) {
+            try (ClasspathJarPool.Lease first = pool.acquire(file.toFile()); ClasspathJarPool.Lease second = pool.acquire(file.toFile())) {
+                assertThat(second.getJar(), is(sameInstance(first.getJar())));
+            }
+            final ClasspathJarPool.Lease unchanged = pool.acquire(file.toFile());
+            final ClasspathJarPool.Lease changed;
+            try {
+                final Path update = createApiJar("2.0.0");
+                Files.write(file, Files.readAllBytes(update));
+                Files.delete(update);
+                file.toFile().setLastModified(System.currentTimeMillis() + 10_000);
+                changed = pool.acquire(file.toFile());
+                assertThat(changed.getJar(), is(not(sameInstance(unchanged.getJar()))));
+                assertThat(unchanged.getJar().getResource("org/ops4j/pax/tinybundles/demo/HelloWorld.class").size() > 0, is(true));
+            } finally {
+                unchanged.close();
+            }
+            changed.close();
+            assertThat(pool.size(), is(1));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void eviction() throws IOException {
+        final Path first = createApiJar("1.0.0");
+        final Path second = createApiJar("1.0.0");
+        try (ClasspathJarPool pool = new ClasspathJarPool(1)) {
+            pool.acquire(first.toFile()).close();
+            pool.acquire(second.toFile()).close();
+            assertThat(pool.size(), is(1));
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+
+    @Test
+    public void bndClasspath() throws IOException {
+        final Path file = createApiJar("1.2.3");
+        final File bundleFile = File.createTempFile("impl", ".jar");
+        try (ClasspathJarPool pool = new ClasspathJarPool()) {
+            final String expected = "org.ops4j.pax.tinybundles.demo;version=\"[1.2,2)\"";
+            for (int i = 0; i < 2; i++) {
+                final Attributes attributes = createTestBundle(file).calculateManifest(new BndBuilder(Runnable::run, 1024, BuilderOptions.defaults(), pool)).getMainAttributes();
+                assertThat(attributes.getValue(Constants.IMPORT_PACKAGE), is(expected));
+                assertThat(pool.size(), is(1));
+            }
+            final Attributes unpooled = createTestBundle(file).calculateManifest(new BndBuilder()).getMainAttributes();
+            assertThat(unpooled.getValue(Constants.IMPORT_PACKAGE), is(expected));
+            createTestBundle(file).writeTo(bundleFile.toPath(), bndBuilder());
+        } finally {
+            Files.delete(file);
+            Files.delete(bundleFile.toPath());
+        }
+    }
+
+    @Test
+    public void leasedUntilWritten() throws IOException {
+        final Path file = createApiJar("1.0.0");
+        // unused jars are closed at once, resources bnd copied from classpath jars would fail to be written then
+        try (ClasspathJarPool pool = new ClasspathJarPool(0)) {
+            final List<Runnable> writers = new ArrayList<>();
+            final InputStream inputStream = createTestBundle(file).build(new BndBuilder(writers::add, 1024 * 1024, BuilderOptions.defaults(), pool));
+            assertThat(pool.size(), is(1));
+            writers.forEach(Runnable::run);
+            assertThat(getEntries(inputStream).containsKey("org/ops4j/pax/tinybundles/demo/internal/HelloWorldImpl.class"), is(true));
+            assertThat(pool.size(), is(0));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.Compression;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldActivator;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldImpl;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getManifest;
+
+public class CompressionTest {
+
+    private static final String CLASS = "org/ops4j/pax/tinybundles/demo/HelloWorld.class";
+
+    private static final byte[] IMAGE = new byte[50_000];
+
+    static {
+        new Random(1).nextBytes(IMAGE);
+    }
+
+    private static TinyBundle createTestBundle() {
+        return bundle()
+            .addClass(HelloWorldActivator.class)
+            .addClass(HelloWorld.class)
+            .addClass(HelloWorldImpl.class)
+            .addResource("images/logo.png", new ByteArrayInputStream(IMAGE))
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "compression")
+            .setHeader(Constants.BUNDLE_ACTIVATOR, HelloWorldActivator.class.getName());
+    }
+
+    private static Map<String, Integer> getMethods(final byte[] bundle) throws IOException {
+        final Map<String, Integer> methods = new HashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(bundle))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                methods.put(entry.getName(), entry.getMethod());
+            }
+        }
+        return methods;
+    }
+
+    private static byte[] build(final Builder builder) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        createTestBundle().writeTo(outputStream, builder);
+        return outputStream.toByteArray();
+    }
+
+    private static void assertContent(final byte[] bundle) throws IOException {
+        final Map<String, byte[]> entries = getEntries(new ByteArrayInputStream(bundle));
+        assertThat(entries.get("images/logo.png"), is(IMAGE));
+        final Attributes attributes = getManifest(new ByteArrayInputStream(bundle)).getMainAttributes();
+        assertThat(attributes.getValue(Constants.BUNDLE_SYMBOLICNAME), is("compression"));
+    }
+
+    @Test
+    public void rawStored() throws IOException {
+        final BuilderOptions options = BuilderOptions.defaults().compression(Compression.stored());
+        final byte[] bundle = build(rawBuilder(options));
+        assertContent(bundle);
+        for (final Map.Entry<String, Integer> entry : getMethods(bundle).entrySet()) {
+            assertThat(entry.getKey(), entry.getValue(), is(ZipEntry.STORED));
+        }
+    }
+
+    @Test
+    public void rawStoreCompressedContent() throws IOException {
+        final BuilderOptions options = BuilderOptions.defaults().compression(Compression.deflate(9).storeCompressedContent());
+        final byte[] bundle = build(rawBuilder(options));
+        assertContent(bundle);
+        final Map<String, Integer> methods = getMethods(bundle);
+        assertThat(methods.get("images/logo.png"), is(ZipEntry.STORED));
+        assertThat(methods.get(CLASS), is(ZipEntry.DEFLATED));
+    }
+
+    @Test
+    public void rawStreamStored() throws IOException {
+        final BuilderOptions options = BuilderOptions.defaults().compression(Compression.stored());
+        final InputStream inputStream = createTestBundle().build(rawBuilder(options));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int n;
+        while ((n = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, n);
+        }
+        final byte[] bundle = outputStream.toByteArray();
+        assertContent(bundle);
+        assertThat(getMethods(bundle).get(CLASS), is(ZipEntry.STORED));
+    }
+
+    @Test
+    public void bndStored() throws IOException {
+        final BuilderOptions options = BuilderOptions.defaults().compression(Compression.stored());
+        final byte[] bundle = build(bndBuilder(options));
+        assertContent(bundle);
+        for (final Map.Entry<String, Integer> entry : getMethods(bundle).entrySet()) {
+            assertThat(entry.getKey(), entry.getValue(), is(ZipEntry.STORED));
+        }
+    }
+
+    @Test
+    public void bndStoreCompressedContent() throws IOException {
+        final BuilderOptions options = BuilderOptions.defaults().compression(Compression.deflate().storeCompressedContent());
+        final byte[] bundle = build(bndBuilder(options));
+        assertContent(bundle);
+        final Map<String, Integer> methods = getMethods(bundle);
+        assertThat(methods.get("images/logo.png"), is(ZipEntry.STORED));
+        assertThat(methods.get(CLASS), is(ZipEntry.DEFLATED));
+        assertThat(methods.containsKey("org/ops4j/pax/tinybundles/demo/"), is(true));
+        final Attributes attributes = getManifest(new ByteArrayInputStream(bundle)).getMainAttributes();
+        assertThat(attributes.getValue(Constants.IMPORT_PACKAGE), is("org.osgi.framework,org.slf4j"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLevel() {
+        Compression.deflate(10);
+    }
+
+}
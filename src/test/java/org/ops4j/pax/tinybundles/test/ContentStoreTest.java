@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.internal.ContentStore;
+import org.ops4j.store.Handle;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+
+public class ContentStoreTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] content(final int seed) {
+        final byte[] content = new byte[4_000];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+
+    private static byte[] readAll(final InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, n);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    private static long countFiles(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    public void deduplicate() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        final ContentStore store = new ContentStore(directory, 1024 * 1024);
+        final Handle first = store.store(new ByteArrayInputStream(content(1)));
+        final Handle second = store.store(new ByteArrayInputStream(content(1)));
+        final Handle other = store.store(new ByteArrayInputStream(content(2)));
+        assertThat(second.getIdentification(), is(first.getIdentification()));
+        assertThat(other.getIdentification(), not(first.getIdentification()));
+        assertThat(store.getSize(), is(8_000L));
+        assertThat(countFiles(directory), is(2L));
+        final Path path = Paths.get(store.getLocation(first));
+        assertThat(directory.relativize(path).getNameCount(), is(3));
+        assertThat(readAll(store.load(second)), is(content(1)));
+    }
+
+    @Test
+    public void evictUnreferenced() throws Exception {
+        final ContentStore store = new ContentStore(folder.getRoot().toPath(), 10_000);
+        final Handle kept = store.store(new ByteArrayInputStream(content(1)));
+        store.store(new ByteArrayInputStream(content(2)));
+        store.store(new ByteArrayInputStream(content(3)));
+        // the unreferenced handle of the second content is evicted once garbage collected
+        for (int i = 0; i < 50 && store.getEntries().size() > 2; i++) {
+            System.gc();
+            Thread.sleep(20);
+            store.store(new ByteArrayInputStream(content(3)));
+        }
+        assertThat(store.getEntries().size(), is(2));
+        assertThat(store.getEntries(), hasItem(kept.getIdentification()));
+        assertThat(readAll(store.load(kept)), is(content(1)));
+    }
+
+    @Test
+    public void indexAndCleanUpOnStartup() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        final ContentStore previous = new ContentStore(directory, 1024 * 1024);
+        final String[] ids = new String[3];
+        for (int i = 0; i < ids.length; i++) {
+            final Handle handle = previous.store(new ByteArrayInputStream(content(i)));
+            ids[i] = handle.getIdentification();
+            Files.setLastModifiedTime(Paths.get(previous.getLocation(handle)), FileTime.fromMillis(1_000_000L * (i + 1)));
+        }
+        Files.write(directory.resolve("store-1.tmp"), new byte[10]);
+        final Path unknown = Paths.get(previous.getLocation(() -> ids[0])).resolveSibling("unknown");
+        Files.write(unknown, new byte[10]);
+        final Path notes = directory.resolve("notes.txt");
+        Files.write(notes, new byte[10]);
+        final Path misplaced = directory.resolve(ids[1].startsWith("00") ? "ff" : "00").resolve("00").resolve(ids[1]);
+        Files.createDirectories(misplaced.getParent());
+        Files.copy(Paths.get(previous.getLocation(() -> ids[1])), misplaced);
+        final ContentStore store = new ContentStore(directory, 8_000);
+        assertThat(store.getEntries().size(), is(2));
+        assertThat(store.getEntries(), not(hasItem(ids[0])));
+        assertThat(Files.exists(misplaced), is(false));
+        assertThat(Files.exists(directory.resolve("store-1.tmp")), is(false));
+        // files not created by the store are kept
+        assertThat(Files.exists(unknown), is(true));
+        assertThat(Files.exists(notes), is(true));
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.filter(Files::isRegularFile).map(path -> path.getFileName().toString()).filter(name -> name.length() == 64).sorted(Comparator.naturalOrder()).toArray(), is(Stream.of(ids[1], ids[2]).sorted().toArray()));
+        }
+    }
+
+    @Test
+    public void buildFromContentStore() throws IOException {
+        final ContentStore store = new ContentStore(folder.getRoot().toPath(), 1024 * 1024);
+        final InputStream inputStream = bundle(store)
+            .addClass(HelloWorld.class)
+            .addResource("first.bin", new ByteArrayInputStream(content(1)))
+            .addResource("second.bin", new ByteArrayInputStream(content(1)))
+            .build(rawBuilder());
+        final Map<String, byte[]> entries = getEntries(new ByteArrayInputStream(readAll(inputStream)));
+        assertThat(entries.get("first.bin"), is(content(1)));
+        assertThat(entries.get("second.bin"), is(content(1)));
+        assertThat(entries.containsKey("org/ops4j/pax/tinybundles/demo/HelloWorld.class"), is(true));
+        assertThat(store.getEntries().size(), is(1));
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.internal.DiskBuildCache;
+import org.ops4j.pax.tinybundles.internal.MemoryBuildCache;
+import org.ops4j.pax.tinybundles.internal.TieredBuildCache;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DiskBuildCacheTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (final Path path : (Iterable<Path>) paths::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static byte[] createBundle(final int seed) {
+        final byte[] bundle = new byte[1000];
+        new Random(seed).nextBytes(bundle);
+        return bundle;
+    }
+
+    private static byte[] read(final InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, n);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    @Test
+    public void sharedDirectory() throws IOException {
+        final DiskBuildCache first = new DiskBuildCache(directory, 1024 * 1024);
+        final DiskBuildCache second = new DiskBuildCache(directory, 1024 * 1024);
+        assertThat(first.get("a"), is(nullValue()));
+        first.put("a", createBundle(1));
+        assertThat(read(second.get("a")), is(createBundle(1)));
+        assertThat(first.getMisses(), is(1L));
+        assertThat(second.getHits(), is(1L));
+        assertThat(second.getCount(), is(1));
+        assertThat(second.getSize(), is(1000L));
+    }
+
+    @Test
+    public void pruneLeastRecentlyUsed() throws IOException, InterruptedException {
+        final DiskBuildCache cache = new DiskBuildCache(directory, 2500);
+        cache.put("a", createBundle(1));
+        cache.put("b", createBundle(2));
+        // modification times have a coarse resolution on some file systems
+        Thread.sleep(1100);
+        read(cache.get("a"));
+        cache.put("c", createBundle(3));
+        assertThat(cache.getEvictions(), is(1L));
+        assertThat(cache.getCount(), is(2));
+        assertThat(cache.get("b"), is(nullValue()));
+        assertThat(read(cache.get("a")), is(createBundle(1)));
+        assertThat(read(cache.get("c")), is(createBundle(3)));
+    }
+
+    @Test
+    public void concurrentPublish() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                final int seed = i % 4;
+                futures.add(executor.submit(() -> {
+                    final DiskBuildCache cache = new DiskBuildCache(directory, 3000);
+                    cache.put(String.valueOf(seed), createBundle(seed));
+                    try (InputStream inputStream = cache.get(String.valueOf(seed))) {
+                        if (Objects.nonNull(inputStream)) {
+                            assertThat(read(inputStream), is(createBundle(seed)));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        final DiskBuildCache cache = new DiskBuildCache(directory, 3000);
+        assertThat(cache.getSize() <= 3000, is(true));
+    }
+
+    @Test
+    public void tiered() throws IOException {
+        final MemoryBuildCache memory = new MemoryBuildCache(1024 * 1024);
+        new DiskBuildCache(directory, 1024 * 1024).put("a", createBundle(1));
+        final TieredBuildCache cache = new TieredBuildCache(memory, new DiskBuildCache(directory, 1024 * 1024));
+        assertThat(read(cache.get("a")), is(createBundle(1)));
+        assertThat(memory.getCount(), is(1));
+        assertThat(read(cache.get("a")), is(createBundle(1)));
+        assertThat(memory.getHits(), is(1L));
+        assertThat(cache.getHits(), is(2L));
+        assertThat(cache.get("b"), is(nullValue()));
+        assertThat(cache.getMisses(), is(1L));
+    }
+
+}
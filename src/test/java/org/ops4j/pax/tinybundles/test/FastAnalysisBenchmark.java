@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.osgi.framework.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+
+/**
+ * Compares manifest calculation times of default and fast analysis for a bundle with all classes of JUnit.
+ * Not part of the unit tests, run with {@code mvn test -Pbenchmark}.
+ */
+public class FastAnalysisBenchmark {
+
+    private static final int WARMUP = 20;
+
+    private static final int ITERATIONS = 50;
+
+    private final Logger logger = LoggerFactory.getLogger(FastAnalysisBenchmark.class);
+
+    private static TinyBundle createTestBundle() {
+        final Path junit;
+        try {
+            junit = Paths.get(Test.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+        return bundle()
+            .readIn(junit)
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "junit")
+            .setHeader(Constants.EXPORT_PACKAGE, "junit.*,org.junit.*");
+    }
+
+    private static long measure(final TinyBundle bundle, final Builder builder, final int iterations) throws IOException {
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bundle.calculateManifest(builder);
+        }
+        return System.nanoTime() - start;
+    }
+
+    @Test
+    public void fastAnalysis() throws IOException {
+        final TinyBundle bundle = createTestBundle();
+        final Builder full = bndBuilder();
+        final Builder fast = bndBuilder(BuilderOptions.defaults().fastAnalysis(true));
+        measure(bundle, full, WARMUP);
+        measure(bundle, fast, WARMUP);
+        final long fullTime = measure(bundle, full, ITERATIONS);
+        final long fastTime = measure(bundle, fast, ITERATIONS);
+        logger.info(String.format("default analysis: %.2f ms/op, fast analysis: %.2f ms/op, speedup: %.2fx",
+            fullTime / 1e6 / ITERATIONS, fastTime / 1e6 / ITERATIONS, (double) fullTime / fastTime));
+        assertThat(fastTime < fullTime, is(true));
+    }
+
+}
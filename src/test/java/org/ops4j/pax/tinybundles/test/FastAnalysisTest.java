@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.jar.Attributes;
+import java.util.jar.JarInputStream;
+
+import aQute.bnd.header.OSGiHeader;
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+
+public class FastAnalysisTest {
+
+    private static final BuilderOptions FAST = BuilderOptions.defaults().fastAnalysis(true);
+
+    /**
+     * Creates a bundle with all classes of JUnit exporting all its packages.
+     */
+    private static TinyBundle createTestBundle() throws IOException {
+        final Path junit;
+        try {
+            junit = Paths.get(Test.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream inputStream = Files.newInputStream(junit)) {
+            return bundle()
+                .readIn(new JarInputStream(inputStream))
+                .setHeader(Constants.BUNDLE_SYMBOLICNAME, "junit")
+                .setHeader(Constants.EXPORT_PACKAGE, "junit.*,org.junit.*");
+        }
+    }
+
+    @Test
+    public void fastAnalysis() throws IOException {
+        final TinyBundle bundle = createTestBundle();
+        final Attributes full = bundle.calculateManifest(bndBuilder()).getMainAttributes();
+        final Attributes fast = bundle.calculateManifest(bndBuilder(FAST)).getMainAttributes();
+        assertThat(fast.getValue(Constants.IMPORT_PACKAGE), is(full.getValue(Constants.IMPORT_PACKAGE)));
+        assertThat(OSGiHeader.parseHeader(fast.getValue(Constants.EXPORT_PACKAGE)).keySet(), is(OSGiHeader.parseHeader(full.getValue(Constants.EXPORT_PACKAGE)).keySet()));
+        assertThat(full.getValue(Constants.EXPORT_PACKAGE), containsString("uses:="));
+        assertThat(fast.getValue(Constants.EXPORT_PACKAGE), not(containsString("uses:=")));
+        assertThat(fast.getValue(Constants.REQUIRE_CAPABILITY), is(nullValue()));
+    }
+
+    @Test
+    public void fastAnalysisOverridden() throws IOException {
+        final TinyBundle bundle = createTestBundle().setHeader("-nouses", "false");
+        final Attributes fast = bundle.calculateManifest(bndBuilder(FAST)).getMainAttributes();
+        assertThat(fast.getValue(Constants.EXPORT_PACKAGE), containsString("uses:="));
+    }
+
+}
@@ -17,10 +17,15 @@
  */
 package org.ops4j.pax.tinybundles.test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
@@ -37,6 +42,23 @@ public class JarHelper {
         }
     }
 
+    public static Map<String, byte[]> getEntries(final InputStream bundle) throws IOException {
+        final Map<String, byte[]> entries = new HashMap<>();
+        try (JarInputStream jar = new JarInputStream(bundle)) {
+            JarEntry entry;
+            while (Objects.nonNull(entry = jar.getNextJarEntry())) {
+                final ByteArrayOutputStream content = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[1024];
+                int n;
+                while ((n = jar.read(buffer)) > 0) {
+                    content.write(buffer, 0, n);
+                }
+                entries.put(entry.getName(), content.toByteArray());
+            }
+        }
+        return entries;
+    }
+
     public static Manifest getManifest(final InputStream bundle) throws IOException {
         try (JarInputStream jar = new JarInputStream(bundle)) {
             return jar.getManifest();
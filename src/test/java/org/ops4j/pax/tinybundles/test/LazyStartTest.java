@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+
+public class LazyStartTest {
+
+    private static final BuilderOptions LAZY = BuilderOptions.defaults().lazyStart(true);
+
+    private static byte[] readAll(final InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, n);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    private static URL countingUrl(final AtomicInteger opened) throws IOException {
+        return new URL(null, "counting:resource", new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(final URL u) {
+                return new URLConnection(u) {
+                    @Override
+                    public void connect() {
+                    }
+
+                    @Override
+                    public InputStream getInputStream() {
+                        opened.incrementAndGet();
+                        return new ByteArrayInputStream("content".getBytes(StandardCharsets.UTF_8));
+                    }
+                };
+            }
+        });
+    }
+
+    private static TinyBundle createBundle(final AtomicInteger opened) throws IOException {
+        return bundle()
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "lazy")
+            .addClass(HelloWorld.class)
+            .addResource("counting.txt", countingUrl(opened));
+    }
+
+    @Test
+    public void closedUnreadNeverStarts() throws Exception {
+        for (final Builder builder : new Builder[]{rawBuilder(LAZY), bndBuilder(LAZY)}) {
+            final AtomicInteger opened = new AtomicInteger();
+            final InputStream inputStream = createBundle(opened).build(builder);
+            Thread.sleep(100);
+            assertThat(opened.get(), is(0));
+            inputStream.close();
+            Thread.sleep(100);
+            assertThat(opened.get(), is(0));
+        }
+    }
+
+    @Test
+    public void startsOnFirstRead() throws Exception {
+        final BuilderOptions reproducible = BuilderOptions.defaults().reproducible(true);
+        for (final boolean bnd : new boolean[]{false, true}) {
+            final AtomicInteger opened = new AtomicInteger();
+            final Builder eager = bnd ? bndBuilder(reproducible) : rawBuilder(reproducible);
+            final Builder lazy = bnd ? bndBuilder(reproducible.lazyStart(true)) : rawBuilder(reproducible.lazyStart(true));
+            final InputStream inputStream = createBundle(opened).build(lazy);
+            Thread.sleep(100);
+            assertThat(opened.get(), is(0));
+            final byte[] bytes = readAll(inputStream);
+            assertThat(opened.get(), is(1));
+            assertThat(bytes, is(readAll(createBundle(opened).build(eager))));
+        }
+    }
+
+    @Test
+    public void capturesResourcesWhenCreated() throws IOException {
+        for (final Builder builder : new Builder[]{rawBuilder(LAZY), bndBuilder(LAZY)}) {
+            final TinyBundle bundle = createBundle(new AtomicInteger());
+            final InputStream inputStream = bundle.build(builder);
+            bundle.removeResource("counting.txt");
+            final Map<String, byte[]> entries = getEntries(new ByteArrayInputStream(readAll(inputStream)));
+            assertThat(new String(entries.get("counting.txt"), StandardCharsets.UTF_8), is("content"));
+        }
+    }
+
+}
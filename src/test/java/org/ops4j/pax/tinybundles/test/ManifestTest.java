@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldActivator;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldImpl;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getManifest;
+
+public class ManifestTest {
+
+    private static TinyBundle createTestBundle() {
+        return bundle()
+            .addClass(HelloWorldActivator.class)
+            .addClass(HelloWorld.class)
+            .addClass(HelloWorldImpl.class)
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "manifest")
+            .setHeader(Constants.EXPORT_PACKAGE, HelloWorld.class.getPackage().getName())
+            .setHeader(Constants.BUNDLE_ACTIVATOR, HelloWorldActivator.class.getName());
+    }
+
+    @Test
+    public void bndManifest() throws IOException {
+        final BuilderOptions options = BuilderOptions.defaults().reproducible(true);
+        final Manifest manifest = createTestBundle().calculateManifest(bndBuilder(options));
+        final Attributes attributes = manifest.getMainAttributes();
+        assertThat(attributes.getValue(Constants.BUNDLE_SYMBOLICNAME), is("manifest"));
+        assertThat(attributes.getValue(Constants.IMPORT_PACKAGE), is("org.ops4j.pax.tinybundles.demo,org.osgi.framework,org.slf4j"));
+        assertThat(attributes.getValue(Constants.EXPORT_PACKAGE), is("org.ops4j.pax.tinybundles.demo;version=\"0.0.0\""));
+        assertThat(manifest, is(getManifest(createTestBundle().build(bndBuilder(options)))));
+    }
+
+    @Test
+    public void rawManifest() throws IOException {
+        final Manifest manifest = createTestBundle().calculateManifest(rawBuilder());
+        assertThat(manifest.getMainAttributes().getValue(Constants.BUNDLE_SYMBOLICNAME), is("manifest"));
+        assertThat(manifest.getMainAttributes().getValue(Constants.IMPORT_PACKAGE), is((String) null));
+        assertThat(manifest, is(getManifest(createTestBundle().build(rawBuilder()))));
+    }
+
+    @Test
+    public void analyzeOnceBuildRaw() throws IOException {
+        final Manifest manifest = createTestBundle().calculateManifest();
+        final TinyBundle bundle = createTestBundle();
+        for (final Map.Entry<Object, Object> entry : manifest.getMainAttributes().entrySet()) {
+            bundle.setHeader(entry.getKey().toString(), entry.getValue().toString());
+        }
+        final Attributes attributes = getManifest(bundle.build(rawBuilder())).getMainAttributes();
+        assertThat(attributes.getValue(Constants.IMPORT_PACKAGE), is(manifest.getMainAttributes().getValue(Constants.IMPORT_PACKAGE)));
+        assertThat(attributes.getValue(Constants.BUNDLE_SYMBOLICNAME), is("manifest"));
+    }
+
+}
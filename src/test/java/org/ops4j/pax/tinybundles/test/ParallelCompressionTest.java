@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.jar.Attributes;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import aQute.bnd.osgi.EmbeddedResource;
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.Compression;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldActivator;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldImpl;
+import org.ops4j.pax.tinybundles.internal.BuildExecutors;
+import org.ops4j.pax.tinybundles.internal.JarWriter;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getManifest;
+
+public class ParallelCompressionTest {
+
+    private static final long TIME = 1_700_000_000_000L;
+
+    private static final BuilderOptions SEQUENTIAL = BuilderOptions.defaults();
+
+    private static final BuilderOptions PARALLEL = BuilderOptions.defaults().parallelCompression(true);
+
+    private static ZipEntry createEntry(final String path) {
+        final ZipEntry entry = new ZipEntry(path);
+        entry.setTime(TIME);
+        return entry;
+    }
+
+    private static byte[] write(final BuilderOptions options, final Path file, final int count, final int size) throws IOException {
+        return write(options, BuildExecutors.defaultExecutor(), file, count, size);
+    }
+
+    private static byte[] write(final BuilderOptions options, final Executor executor, final Path file, final int count, final int size) throws IOException {
+        final Random random = new Random(count);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (JarWriter writer = JarWriter.create(outputStream, options, executor)) {
+            writer.write(createEntry("META-INF/MANIFEST.MF"), "Manifest-Version: 1.0\r\n\r\n".getBytes());
+            writer.writeDirectory(createEntry("data/"));
+            writer.write(createEntry("data/file.bin"), file.toUri().toURL());
+            writer.write(createEntry("data/image.png"), file.toUri().toURL());
+            for (int i = 0; i < count; i++) {
+                final byte[] content = new byte[random.nextInt(size)];
+                for (int j = 0; j < content.length; j++) {
+                    content[j] = (byte) ('a' + random.nextInt(4));
+                }
+                if (i % 2 == 0) {
+                    writer.write(createEntry(String.format("data/%s.txt", i)), content);
+                } else {
+                    writer.write(createEntry(String.format("data/%s.res", i)), new EmbeddedResource(content, TIME));
+                }
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static Path createFile() throws IOException {
+        final byte[] content = new byte[300_000];
+        new Random(1).nextBytes(content);
+        final Path file = Files.createTempFile("parallel", ".bin");
+        return Files.write(file, content);
+    }
+
+    @Test
+    public void byteIdentical() throws IOException {
+        final Path file = createFile();
+        try {
+            final byte[] sequential = write(SEQUENTIAL, file, 500, 2000);
+            final byte[] parallel = write(PARALLEL, file, 500, 2000);
+            assertThat(parallel, is(sequential));
+            final Compression compression = Compression.deflate(9).storeCompressedContent();
+            assertThat(write(PARALLEL.compression(compression), file, 100, 2000), is(write(SEQUENTIAL.compression(compression), file, 100, 2000)));
+            assertThat(getEntries(new ByteArrayInputStream(parallel)).get("data/file.bin"), is(Files.readAllBytes(file)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void compressOnWriterWhenExecutorIsBusy() throws IOException {
+        final Path file = createFile();
+        try {
+            // an executor which never runs its tasks, like a bounded one whose only thread is the writer
+            final byte[] parallel = write(PARALLEL, task -> {
+            }, file, 100, 2000);
+            assertThat(parallel, is(write(SEQUENTIAL, file, 100, 2000)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void byteIdenticalZip64() throws IOException {
+        final Path file = createFile();
+        final File jar = File.createTempFile("parallel", ".jar");
+        try {
+            final byte[] parallel = write(PARALLEL, file, 70_000, 10);
+            assertThat(parallel, is(write(SEQUENTIAL, file, 70_000, 10)));
+            Files.write(jar.toPath(), parallel);
+            try (ZipFile zipFile = new ZipFile(jar)) {
+                assertThat(zipFile.size(), is(70_004));
+            }
+        } finally {
+            Files.delete(file);
+            Files.delete(jar.toPath());
+        }
+    }
+
+    @Test
+    public void buildParallel() throws IOException {
+        for (final boolean bnd : new boolean[]{false, true}) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            bundle()
+                .addClass(HelloWorldActivator.class)
+                .addClass(HelloWorld.class)
+                .addClass(HelloWorldImpl.class)
+                .setHeader(Constants.BUNDLE_SYMBOLICNAME, "parallel")
+                .setHeader(Constants.BUNDLE_ACTIVATOR, HelloWorldActivator.class.getName())
+                .writeTo(outputStream, bnd ? bndBuilder(PARALLEL) : rawBuilder(PARALLEL));
+            final byte[] bundle = outputStream.toByteArray();
+            final Map<String, byte[]> entries = getEntries(new ByteArrayInputStream(bundle));
+            assertThat(entries.containsKey("org/ops4j/pax/tinybundles/demo/HelloWorld.class"), is(true));
+            final Attributes attributes = getManifest(new ByteArrayInputStream(bundle)).getMainAttributes();
+            assertThat(attributes.getValue(Constants.BUNDLE_SYMBOLICNAME), is("parallel"));
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.Compression;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+
+public class PassthroughTest {
+
+    private static final BuilderOptions PASSTHROUGH = BuilderOptions.defaults().passthrough(true).reproducible(true);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] content(final String line, final int lines) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            builder.append(line).append(i).append('\n');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Path createJar() throws IOException {
+        final Path jar = folder.newFile("source.jar").toPath();
+        bundle()
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "source")
+            .setHeader(Constants.BUNDLE_VERSION, "1.0.0")
+            .addClass(HelloWorld.class)
+            .addResource("data/large.txt", content("large", 50_000))
+            .addResource("data/changed.txt", content("original", 100))
+            .addResource("data/removed.txt", content("removed", 100))
+            .addResource("lib/embedded.jar", content("embedded", 1_000))
+            .writeTo(jar, rawBuilder(BuilderOptions.defaults().compression(Compression.deflate().storeCompressedContent())));
+        return jar;
+    }
+
+    @Test
+    public void copyUnchangedEntries() throws IOException {
+        final Path source = createJar();
+        for (final BuilderOptions options : new BuilderOptions[]{PASSTHROUGH, PASSTHROUGH.parallelCompression(true)}) {
+            final Path target = folder.getRoot().toPath().resolve("target.jar");
+            bundle()
+                .readIn(source)
+                .setHeader(Constants.BUNDLE_VERSION, "1.0.1")
+                .addResource("data/changed.txt", content("changed", 100))
+                .removeResource("data/removed.txt")
+                .writeTo(target, rawBuilder(options));
+
+            try (JarInputStream jar = new JarInputStream(Files.newInputStream(target))) {
+                final Manifest manifest = jar.getManifest();
+                assertThat(manifest.getMainAttributes().getValue(Constants.BUNDLE_VERSION), is("1.0.1"));
+                assertThat(manifest.getMainAttributes().getValue(Constants.BUNDLE_SYMBOLICNAME), is("source"));
+            }
+            final Map<String, byte[]> entries = getEntries(Files.newInputStream(target));
+            assertThat(entries.get("data/large.txt"), is(content("large", 50_000)));
+            assertThat(entries.get("data/changed.txt"), is(content("changed", 100)));
+            assertThat(entries.get("lib/embedded.jar"), is(content("embedded", 1_000)));
+            assertThat(entries.containsKey("data/removed.txt"), is(false));
+            assertThat(entries.containsKey("org/ops4j/pax/tinybundles/demo/HelloWorld.class"), is(true));
+
+            try (ZipFile original = new ZipFile(source.toFile()); ZipFile copy = new ZipFile(target.toFile())) {
+                for (final String name : Arrays.asList("data/large.txt", "lib/embedded.jar", "org/ops4j/pax/tinybundles/demo/HelloWorld.class")) {
+                    final ZipEntry expected = original.getEntry(name);
+                    final ZipEntry entry = copy.getEntry(name);
+                    assertThat(entry.getMethod(), is(expected.getMethod()));
+                    assertThat(entry.getCompressedSize(), is(expected.getCompressedSize()));
+                    assertThat(entry.getCrc(), is(expected.getCrc()));
+                    // copied entries keep their time, reproducible builds would write a fixed one otherwise
+                    assertThat(entry.getTime(), is(expected.getTime()));
+                }
+                assertThat(copy.getEntry("data/changed.txt").getTime(), not(original.getEntry("data/changed.txt").getTime()));
+                assertThat(copy.getEntry("lib/embedded.jar").getMethod(), is(ZipEntry.STORED));
+            }
+            Files.delete(target);
+        }
+    }
+
+    @Test
+    public void sameContentAsRebuild() throws IOException {
+        final Path source = createJar();
+        final Map<String, byte[]> copied = getEntries(bundle().readIn(source).build(rawBuilder(PASSTHROUGH)));
+        final Map<String, byte[]> rebuilt = getEntries(bundle().readIn(source).build(rawBuilder(BuilderOptions.defaults().reproducible(true))));
+        assertThat(copied.keySet(), is(rebuilt.keySet()));
+        for (final Map.Entry<String, byte[]> entry : rebuilt.entrySet()) {
+            assertThat(copied.get(entry.getKey()), is(entry.getValue()));
+        }
+    }
+
+}
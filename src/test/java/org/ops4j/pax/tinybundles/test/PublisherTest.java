@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.BundlePublisher;
+import org.ops4j.pax.tinybundles.BundleSubscriber;
+import org.ops4j.pax.tinybundles.BundleSubscription;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+
+public class PublisherTest {
+
+    private static final BuilderOptions REPRODUCIBLE = BuilderOptions.defaults().reproducible(true);
+
+    private static byte[] readAll(final InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, n);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    private static TinyBundle createBundle() {
+        final byte[] content = new byte[300_000];
+        new Random(1).nextBytes(content);
+        return bundle()
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "published")
+            .addClass(HelloWorld.class)
+            .addResource("data.bin", new ByteArrayInputStream(content));
+    }
+
+    @Test
+    public void serveOverHttp() throws Exception {
+        final TinyBundle bundle = createBundle();
+        final BundlePublisher publisher = bundle.publish(bndBuilder(REPRODUCIBLE), Executors.newCachedThreadPool());
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/bundle.jar", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            final OutputStream body = exchange.getResponseBody();
+            publisher.subscribe(new BundleSubscriber() {
+                private BundleSubscription subscription;
+
+                @Override
+                public void onSubscribe(final BundleSubscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(final ByteBuffer chunk) {
+                    try {
+                        body.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+                        subscription.request(1);
+                    } catch (IOException e) {
+                        subscription.cancel();
+                        exchange.close();
+                    }
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    exchange.close();
+                }
+
+                @Override
+                public void onComplete() {
+                    exchange.close();
+                }
+            });
+        });
+        final ExecutorService serverExecutor = Executors.newSingleThreadExecutor();
+        server.setExecutor(serverExecutor);
+        server.start();
+        try {
+            final URL url = new URL(String.format("http://localhost:%s/bundle.jar", server.getAddress().getPort()));
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            final byte[] served = readAll(connection.getInputStream());
+            assertThat(served, is(readAll(bundle.build(bndBuilder(REPRODUCIBLE)))));
+        } finally {
+            server.stop(0);
+            serverExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void backpressure() throws Exception {
+        final List<ByteBuffer> chunks = new CopyOnWriteArrayList<>();
+        final CompletableFuture<BundleSubscription> subscribed = new CompletableFuture<>();
+        final CompletableFuture<Boolean> terminated = new CompletableFuture<>();
+        createBundle().publish(rawBuilder(REPRODUCIBLE), Executors.newCachedThreadPool()).subscribe(new BundleSubscriber() {
+            @Override
+            public void onSubscribe(final BundleSubscription subscription) {
+                subscribed.complete(subscription);
+            }
+
+            @Override
+            public void onNext(final ByteBuffer chunk) {
+                chunks.add(chunk);
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                terminated.complete(false);
+            }
+
+            @Override
+            public void onComplete() {
+                terminated.complete(true);
+            }
+        });
+        final BundleSubscription subscription = subscribed.get(10, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        assertThat(chunks.size(), is(0));
+        subscription.request(2);
+        Thread.sleep(200);
+        assertThat(chunks.size(), is(2));
+        subscription.request(Long.MAX_VALUE);
+        assertThat(terminated.get(10, TimeUnit.SECONDS), is(true));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (final ByteBuffer chunk : chunks) {
+            outputStream.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+        }
+        assertThat(outputStream.toByteArray(), is(readAll(createBundle().build(rawBuilder(REPRODUCIBLE)))));
+    }
+
+    @Test
+    public void invalidRequest() throws Exception {
+        final CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        createBundle().publish(rawBuilder(), Executors.newCachedThreadPool()).subscribe(new BundleSubscriber() {
+            @Override
+            public void onSubscribe(final BundleSubscription subscription) {
+                subscription.request(0);
+            }
+
+            @Override
+            public void onNext(final ByteBuffer chunk) {
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                failure.complete(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                failure.complete(null);
+            }
+        });
+        assertThat(failure.get(10, TimeUnit.SECONDS), instanceOf(IllegalArgumentException.class));
+    }
+
+}
@@ -17,17 +17,24 @@
  */
 package org.ops4j.pax.tinybundles.test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 
 import org.junit.Test;
+import org.ops4j.pax.tinybundles.TinyBundle;
 import org.ops4j.pax.tinybundles.demo.HelloWorld;
 import org.ops4j.pax.tinybundles.demo.internal.HelloWorldActivator;
 import org.ops4j.pax.tinybundles.demo.internal.HelloWorldImpl;
+import org.ops4j.pax.tinybundles.internal.ClassFinder;
 import org.ops4j.pax.tinybundles.internal.Info;
 import org.osgi.framework.Constants;
 
@@ -37,6 +44,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
 import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
 import static org.ops4j.pax.tinybundles.test.JarHelper.createEmptyJar;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
 import static org.ops4j.pax.tinybundles.test.JarHelper.getManifest;
 
 /**
@@ -99,6 +107,23 @@ public class RawTest {
         assertThat("Manifest Header: Pax-TinyBundles", attributes.getValue("Pax-TinyBundles"), is(Info.getPaxTinybundlesVersion()));
     }
 
+    @Test
+    public void writeToStreamAndChannel() throws IOException {
+        final TinyBundle bundle = bundle()
+            .addClass(HelloWorld.class)
+            .symbolicName("sink");
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        bundle.writeTo(stream, rawBuilder());
+        final ByteArrayOutputStream channel = new ByteArrayOutputStream();
+        bundle.writeTo(Channels.newChannel(channel), rawBuilder());
+        for (final byte[] bytes : Arrays.asList(stream.toByteArray(), channel.toByteArray())) {
+            final Map<String, byte[]> entries = getEntries(new ByteArrayInputStream(bytes));
+            assertThat(entries.containsKey(ClassFinder.asResource(HelloWorld.class)), is(true));
+            final Attributes attributes = getManifest(new ByteArrayInputStream(bytes)).getMainAttributes();
+            assertThat(attributes.getValue(Constants.BUNDLE_SYMBOLICNAME), is("sink"));
+        }
+    }
+
     @Test
     public void modifyTest() throws IOException {
         // create a bundle
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarInputStream;
+import java.util.stream.Stream;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ops4j.pax.tinybundles.BuildHandle;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.internal.ContentStore;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+
+public class ReadInPathTest {
+
+    private static final byte[] SOURCE = "class HelloWorld {}".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] content(final int size) {
+        final byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    private Path createJar() throws IOException {
+        final Path jar = folder.newFile("source.jar").toPath();
+        bundle()
+            .setHeader(Constants.BUNDLE_SYMBOLICNAME, "source")
+            .setHeader(Constants.BUNDLE_VERSION, "1.2.3")
+            .addClass(HelloWorld.class)
+            .addResource("data/large.bin", content(500_000))
+            .addResource("data/small.bin", content(100))
+            .addResource("OSGI-OPT/src/HelloWorld.java", SOURCE)
+            .writeTo(jar, rawBuilder());
+        return jar;
+    }
+
+    @Test
+    public void readInLazily() throws IOException {
+        final Path jar = createJar();
+        final ContentStore store = new ContentStore(folder.newFolder("store").toPath(), 1024 * 1024);
+        final TinyBundle bundle = bundle(store).readIn(jar);
+        assertThat(bundle.getHeader(Constants.BUNDLE_SYMBOLICNAME), is("source"));
+        assertThat(bundle.getHeader(Constants.BUNDLE_VERSION), is("1.2.3"));
+        assertThat(store.getEntries().isEmpty(), is(true));
+        final Builder[] builders = {
+            rawBuilder(),
+            rawBuilder(BuilderOptions.defaults().parallelCompression(true)),
+            bndBuilder()
+        };
+        for (final Builder builder : builders) {
+            final Map<String, byte[]> entries = getEntries(bundle.build(builder));
+            assertThat(entries.get("data/large.bin"), is(content(500_000)));
+            assertThat(entries.get("data/small.bin"), is(content(100)));
+            assertThat(entries.get("OSGI-OPT/src/HelloWorld.java"), is(SOURCE));
+            assertThat(entries.containsKey("org/ops4j/pax/tinybundles/demo/HelloWorld.class"), is(true));
+        }
+    }
+
+    @Test
+    public void filterEntries() throws IOException {
+        final Path jar = createJar();
+        final TinyBundle bundle = bundle().readIn(jar, name -> !name.startsWith("OSGI-OPT/") && !name.endsWith("large.bin"));
+        final Map<String, byte[]> entries = getEntries(bundle.build(rawBuilder()));
+        assertThat(entries.containsKey("OSGI-OPT/src/HelloWorld.java"), is(false));
+        assertThat(entries.containsKey("data/large.bin"), is(false));
+        assertThat(entries.get("data/small.bin"), is(content(100)));
+        assertThat(entries.containsKey("org/ops4j/pax/tinybundles/demo/HelloWorld.class"), is(true));
+    }
+
+    @Test
+    public void sameBundleAsReadInStream() throws IOException {
+        final Path jar = createJar();
+        final BuilderOptions options = BuilderOptions.defaults().reproducible(true);
+        final TinyBundle fromPath = bundle().readIn(jar);
+        final TinyBundle fromStream;
+        try (JarInputStream jarIn = new JarInputStream(Files.newInputStream(jar))) {
+            fromStream = bundle().readIn(jarIn);
+        }
+        final Map<String, byte[]> expected = getEntries(fromStream.build(rawBuilder(options)));
+        final Map<String, byte[]> entries = getEntries(fromPath.build(rawBuilder(options)));
+        assertThat(entries.keySet(), is(expected.keySet()));
+        for (final Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            assertThat(entries.get(entry.getKey()), is(entry.getValue()));
+        }
+    }
+
+    @Test
+    public void closeJarAfterBuilds() throws Exception {
+        final Path descriptors = Paths.get("/proc/self/fd");
+        Assume.assumeTrue(Files.isDirectory(descriptors));
+        final Path jar = createJar();
+        final TinyBundle bundle = bundle().readIn(jar);
+        assertThat(openCount(descriptors, jar), is(0L));
+        final Builder[] builders = {
+            rawBuilder(),
+            rawBuilder(BuilderOptions.defaults().passthrough(true)),
+            rawBuilder(BuilderOptions.defaults().parallelCompression(true)),
+            bndBuilder()
+        };
+        for (final Builder builder : builders) {
+            try (BuildHandle handle = bundle.buildHandle(builder)) {
+                assertThat(getEntries(handle.getInputStream()).get("data/small.bin"), is(content(100)));
+                // the stream is closed before its end was read, the writer thread finishes in background
+                final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (!handle.isDone() && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertThat(handle.isDone(), is(true));
+            }
+            assertThat(openCount(descriptors, jar), is(0L));
+        }
+        bundle.writeTo(new ByteArrayOutputStream(), bndBuilder());
+        assertThat(openCount(descriptors, jar), is(0L));
+    }
+
+    private static long openCount(final Path descriptors, final Path file) throws IOException {
+        final Path real = file.toRealPath();
+        try (Stream<Path> links = Files.list(descriptors)) {
+            return links.filter(link -> {
+                try {
+                    return Files.readSymbolicLink(link).equals(real);
+                } catch (IOException e) {
+                    // closed meanwhile
+                    return false;
+                }
+            }).count();
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void missingJar() {
+        bundle().readIn(folder.getRoot().toPath().resolve("missing.jar"));
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.TimeZone;
+import java.util.jar.Attributes;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldActivator;
+import org.ops4j.pax.tinybundles.demo.internal.HelloWorldImpl;
+import org.osgi.framework.Constants;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getManifest;
+
+public class ReproducibleBuildTest {
+
+    private static final BuilderOptions REPRODUCIBLE = BuilderOptions.defaults().reproducible(true);
+
+    private static TinyBundle createTestBundle(final boolean reversed) {
+        final TinyBundle bundle = bundle();
+        if (reversed) {
+            bundle.addClass(HelloWorldImpl.class).addClass(HelloWorld.class).addClass(HelloWorldActivator.class);
+        } else {
+            bundle.addClass(HelloWorldActivator.class).addClass(HelloWorld.class).addClass(HelloWorldImpl.class);
+        }
+        return bundle
+            .addResource("data/hello.txt", new ByteArrayInputStream("Hello".getBytes()))
+            .setHeader(Constants.BUNDLE_ACTIVATOR, HelloWorldActivator.class.getName())
+            .setHeader(Constants.BUNDLE_VENDOR, "OPS4J");
+    }
+
+    private static byte[] build(final TinyBundle bundle, final Builder builder) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bundle.writeTo(outputStream, builder);
+        return outputStream.toByteArray();
+    }
+
+    private static void assertFixedTimes(final byte[] bundle) throws IOException {
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(bundle))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                assertThat(entry.getName(), entry.getTime(), is(expectedTime()));
+            }
+        }
+    }
+
+    private static long expectedTime() {
+        final long time = 318211200000L;
+        return time - TimeZone.getDefault().getOffset(time);
+    }
+
+    @Test
+    public void rawByteIdentical() throws Exception {
+        final byte[] first = build(createTestBundle(false), rawBuilder(REPRODUCIBLE));
+        Thread.sleep(2000);
+        final byte[] second = build(createTestBundle(true), rawBuilder(REPRODUCIBLE));
+        assertThat(second, is(first));
+        assertThat(build(createTestBundle(true), rawBuilder(REPRODUCIBLE.parallelCompression(true))), is(first));
+        assertFixedTimes(first);
+    }
+
+    @Test
+    public void bndByteIdentical() throws Exception {
+        final byte[] first = build(createTestBundle(false), bndBuilder(REPRODUCIBLE));
+        Thread.sleep(2000);
+        final byte[] second = build(createTestBundle(true), bndBuilder(REPRODUCIBLE));
+        assertThat(second, is(first));
+        assertThat(build(createTestBundle(true), bndBuilder(REPRODUCIBLE.parallelCompression(true))), is(first));
+        assertFixedTimes(first);
+        final Attributes attributes = getManifest(new ByteArrayInputStream(first)).getMainAttributes();
+        assertThat(attributes.getValue("Bnd-LastModified"), is(nullValue()));
+    }
+
+    @Test
+    public void bndContentSymbolicName() throws IOException {
+        final Attributes first = getManifest(new ByteArrayInputStream(build(createTestBundle(false), bndBuilder(REPRODUCIBLE)))).getMainAttributes();
+        final String symbolicName = first.getValue(Constants.BUNDLE_SYMBOLICNAME);
+        assertThat(symbolicName.matches("TinyBundle-[0-9a-f]{32}"), is(true));
+        final Attributes other = getManifest(bundle().addClass(HelloWorld.class).build(bndBuilder(REPRODUCIBLE))).getMainAttributes();
+        assertThat(other.getValue(Constants.BUNDLE_SYMBOLICNAME), is(not(symbolicName)));
+        final Attributes random = getManifest(createTestBundle(false).build(bndBuilder())).getMainAttributes();
+        assertThat(random.getValue(Constants.BUNDLE_SYMBOLICNAME), is(not(symbolicName)));
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.BuilderOptions;
+import org.ops4j.pax.tinybundles.Compression;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.store.Handle;
+import org.ops4j.store.Store;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+
+public class ResourceSourcesTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] content(final int size) {
+        final byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    private static byte[] readAll(final InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, n);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    @Test
+    public void buildFromSources() throws IOException {
+        final Path file = folder.newFile("file.bin").toPath();
+        Files.write(file, content(3_000));
+        final ByteBuffer heap = ByteBuffer.wrap(content(2_000), 500, 1_000);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(1_500);
+        direct.put(content(1_500)).flip();
+        final Builder[] builders = {
+            rawBuilder(),
+            rawBuilder(BuilderOptions.defaults().compression(Compression.stored())),
+            bndBuilder(),
+            bndBuilder(BuilderOptions.defaults().compression(Compression.stored()))
+        };
+        for (final Builder builder : builders) {
+            final TinyBundle bundle = bundle(new FailingStore())
+                .addClass(HelloWorld.class)
+                .addResource("bytes.bin", content(1_000))
+                .addResource("heap.bin", heap)
+                .addResource("direct.bin", direct)
+                .addResource("file.bin", file);
+            final Map<String, byte[]> entries = getEntries(bundle.build(builder));
+            assertThat(entries.get("bytes.bin"), is(content(1_000)));
+            assertThat(entries.get("heap.bin"), is(Arrays.copyOfRange(content(2_000), 500, 1_500)));
+            assertThat(entries.get("direct.bin"), is(content(1_500)));
+            assertThat(entries.get("file.bin"), is(content(3_000)));
+            assertThat(entries.containsKey("org/ops4j/pax/tinybundles/demo/HelloWorld.class"), is(true));
+        }
+        assertThat(heap.position(), is(500));
+        assertThat(direct.position(), is(0));
+    }
+
+    @Test
+    public void sameBundleAsStreams() throws IOException {
+        final BuilderOptions options = BuilderOptions.defaults().reproducible(true);
+        final Path file = folder.newFile("file.bin").toPath();
+        Files.write(file, content(3_000));
+        final TinyBundle sources = bundle()
+            .addResource("bytes.bin", content(1_000))
+            .addResource("file.bin", file);
+        final TinyBundle streams = bundle()
+            .addResource("bytes.bin", new ByteArrayInputStream(content(1_000)))
+            .addResource("file.bin", new ByteArrayInputStream(content(3_000)));
+        assertThat(readAll(sources.build(rawBuilder(options))), is(readAll(streams.build(rawBuilder(options)))));
+    }
+
+    /**
+     * A store failing on any use, resources added from memory or files must not be stored.
+     */
+    private static class FailingStore implements Store<InputStream> {
+
+        @Override
+        public Handle store(final InputStream inputStream) {
+            throw new AssertionError("Resource stored");
+        }
+
+        @Override
+        public InputStream load(final Handle handle) {
+            throw new AssertionError("Resource loaded");
+        }
+
+        @Override
+        public URI getLocation(final Handle handle) {
+            throw new AssertionError("Resource located");
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.internal.ResourceTransfer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+
+public class ResourceTransferTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("transfer");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (final Path path : (Iterable<Path>) paths::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private Path createFile(final String name, final int size) throws IOException {
+        final byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return Files.write(directory.resolve(name), content);
+    }
+
+    @Test
+    public void transferFiles() throws IOException {
+        for (final int size : new int[]{0, 1, 100_000, 3 * 1024 * 1024 + 7}) {
+            final Path file = createFile("file-" + size, size);
+            final ByteArrayOutputStream target = new ByteArrayOutputStream();
+            final long count = ResourceTransfer.transfer(file.toUri().toURL(), target);
+            assertThat(count, is((long) size));
+            assertThat(target.toByteArray(), is(Files.readAllBytes(file)));
+        }
+    }
+
+    @Test
+    public void transferStream() throws IOException {
+        final byte[] content = new byte[200_000];
+        new Random(1).nextBytes(content);
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        assertThat(ResourceTransfer.transfer(new ByteArrayInputStream(content), target), is((long) content.length));
+        assertThat(target.toByteArray(), is(content));
+    }
+
+    @Test
+    public void buildWithLargeFileResource() throws IOException {
+        final Path small = createFile("small.bin", 10_000);
+        final Path large = createFile("large.bin", 2 * 1024 * 1024);
+        final Map<String, byte[]> entries = getEntries(bundle()
+            .addResource("small.bin", small.toUri().toURL())
+            .addResource("large.bin", large.toUri().toURL())
+            .build(rawBuilder()));
+        assertThat(entries.get("small.bin"), is(Files.readAllBytes(small)));
+        assertThat(entries.get("large.bin"), is(Files.readAllBytes(large)));
+    }
+
+}
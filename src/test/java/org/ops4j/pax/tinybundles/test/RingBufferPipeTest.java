@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.internal.RingBufferPipe;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RingBufferPipeTest {
+
+    @Test(timeout = 10000)
+    public void transferWrapsAroundSmallBuffer() throws Exception {
+        final byte[] content = new byte[1024 * 1024 + 17];
+        new Random(42).nextBytes(content);
+        final RingBufferPipe pipe = new RingBufferPipe(1000);
+        final Thread writer = new Thread(() -> {
+            try (OutputStream outputStream = pipe.getOutputStream()) {
+                for (int offset = 0; offset < content.length; offset += 333) {
+                    outputStream.write(content, offset, Math.min(333, content.length - offset));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream inputStream = pipe.getInputStream()) {
+            final byte[] buffer = new byte[777];
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                result.write(buffer, 0, n);
+            }
+        }
+        writer.join();
+        assertThat(result.toByteArray(), is(content));
+    }
+
+    @Test(timeout = 10000)
+    public void singleByteWritesWrapAround() throws Exception {
+        final RingBufferPipe pipe = new RingBufferPipe(7);
+        final Thread writer = new Thread(() -> {
+            try (OutputStream outputStream = pipe.getOutputStream()) {
+                for (int i = 0; i < 1000; i++) {
+                    outputStream.write(i);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+        try (InputStream inputStream = pipe.getInputStream()) {
+            for (int i = 0; i < 1000; i++) {
+                assertThat(inputStream.read(), is(i & 0xff));
+            }
+            assertThat(inputStream.read(), is(-1));
+        }
+        writer.join();
+    }
+
+    @Test(timeout = 10000)
+    public void failurePropagatesToReader() throws Exception {
+        final RingBufferPipe pipe = new RingBufferPipe(16);
+        final IllegalStateException failure = new IllegalStateException("writer failed");
+        pipe.getOutputStream().write(new byte[8]);
+        pipe.fail(failure);
+        try {
+            pipe.getInputStream().read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertThat(e.getCause(), is(sameInstance(failure)));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void closingReaderUnblocksWriter() throws Exception {
+        final RingBufferPipe pipe = new RingBufferPipe(16);
+        final AtomicReference<Exception> exception = new AtomicReference<>();
+        final Thread writer = new Thread(() -> {
+            try {
+                pipe.getOutputStream().write(new byte[64]);
+            } catch (IOException e) {
+                exception.set(e);
+            }
+        });
+        writer.start();
+        assertThat(pipe.getInputStream().read(), is(0));
+        pipe.getInputStream().close();
+        writer.join();
+        assertThat(pipe.isClosed(), is(true));
+        assertThat(exception.get(), is(instanceOf(IOException.class)));
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.TinyBundle;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+
+public class SupplierResourceTest {
+
+    private static final byte[] CONTENT = "generated=true".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void supplyWhenBuilding() throws IOException {
+        for (final Builder builder : new Builder[]{rawBuilder(), bndBuilder()}) {
+            final AtomicInteger supplied = new AtomicInteger();
+            final AtomicInteger removed = new AtomicInteger();
+            final TinyBundle bundle = bundle()
+                .addClass(HelloWorld.class)
+                .addResource("config/generated.properties", counting(supplied))
+                .addResource("config/removed.properties", counting(removed))
+                .removeResource("config/removed.properties");
+            assertThat(supplied.get(), is(0));
+            final Map<String, byte[]> entries = getEntries(bundle.build(builder));
+            assertThat(entries.get("config/generated.properties"), is(CONTENT));
+            assertThat(entries.containsKey("config/removed.properties"), is(false));
+            assertThat(supplied.get(), is(1));
+            assertThat(removed.get(), is(0));
+        }
+    }
+
+    @Test
+    public void supplierFailureFailsBuild() {
+        final TinyBundle bundle = bundle()
+            .addResource("config/generated.properties", () -> {
+                throw new UncheckedIOException(new IOException("generator failed"));
+            });
+        try {
+            bundle.writeTo(new ByteArrayOutputStream(), rawBuilder());
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("generator failed"));
+        }
+    }
+
+    private static Supplier<InputStream> counting(final AtomicInteger counter) {
+        return () -> {
+            counter.incrementAndGet();
+            return new ByteArrayInputStream(CONTENT);
+        };
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.tinybundles.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.ops4j.pax.tinybundles.Builder;
+import org.ops4j.pax.tinybundles.demo.HelloWorld;
+import org.ops4j.pax.tinybundles.internal.TieredStore;
+import org.ops4j.store.Handle;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.ops4j.pax.tinybundles.TinyBundles.bndBuilder;
+import static org.ops4j.pax.tinybundles.TinyBundles.bundle;
+import static org.ops4j.pax.tinybundles.TinyBundles.rawBuilder;
+import static org.ops4j.pax.tinybundles.test.JarHelper.getEntries;
+
+public class TieredStoreTest {
+
+    private static byte[] content(final int size) {
+        final byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    private static byte[] readAll(final InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, n);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    @Test
+    public void tiers() throws IOException {
+        for (final boolean direct : new boolean[]{false, true}) {
+            try (TieredStore store = new TieredStore(10_000, 4_000, direct)) {
+                final Handle small = store.store(new ByteArrayInputStream(content(3_000)));
+                final Handle large = store.store(new ByteArrayInputStream(content(5_000)));
+                final Handle fits = store.store(new ByteArrayInputStream(content(4_000)));
+                final Handle overBudget = store.store(new ByteArrayInputStream(content(3_500)));
+                assertThat(store.getMemoryUsed(), is(7_000L));
+                assertThat(store.getLocation(small), is(nullValue()));
+                assertThat(store.getLocation(large).getScheme(), is("file"));
+                assertThat(store.getLocation(fits), is(nullValue()));
+                assertThat(store.getLocation(overBudget).getScheme(), is("file"));
+                assertThat(readAll(store.load(small)), is(content(3_000)));
+                assertThat(readAll(store.load(large)), is(content(5_000)));
+                assertThat(readAll(store.getUrl(fits).openStream()), is(content(4_000)));
+                assertThat(readAll(store.getUrl(overBudget).openStream()), is(content(3_500)));
+                final Path spilled = Paths.get(store.getLocation(large));
+                store.close();
+                assertThat(Files.exists(spilled), is(false));
+                assertThat(Files.exists(spilled.getParent()), is(false));
+            }
+        }
+    }
+
+    @Test
+    public void buildFromTieredStore() throws IOException {
+        for (final Builder builder : new Builder[]{rawBuilder(), bndBuilder()}) {
+            try (TieredStore store = new TieredStore(1024 * 1024, TieredStore.DEFAULT_SPILL_THRESHOLD, false)) {
+                final InputStream bundle = bundle(store)
+                    .addClass(HelloWorld.class)
+                    .addResource("small.bin", new ByteArrayInputStream(content(1_000)))
+                    .addResource("large.bin", new ByteArrayInputStream(content(2 * 1024 * 1024)))
+                    .build(builder);
+                final Map<String, byte[]> entries = getEntries(new ByteArrayInputStream(readAll(bundle)));
+                assertThat(entries.get("small.bin"), is(content(1_000)));
+                assertThat(entries.get("large.bin"), is(content(2 * 1024 * 1024)));
+                assertThat(entries.containsKey("org/ops4j/pax/tinybundles/demo/HelloWorld.class"), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void releaseUnreachable() throws Exception {
+        try (TieredStore store = new TieredStore(10_000, 4_000, false)) {
+            final Handle kept = store.store(new ByteArrayInputStream(content(1_000)));
+            final URL url = store.getUrl(store.store(new ByteArrayInputStream(content(2_000))));
+            store.store(new ByteArrayInputStream(content(3_000)));
+            final Path spilled = Paths.get(store.getLocation(store.store(new ByteArrayInputStream(content(5_000)))));
+            assertThat(store.getMemoryUsed(), is(6_000L));
+            for (int i = 0; i < 50 && (store.getMemoryUsed() > 3_000 || Files.exists(spilled)); i++) {
+                System.gc();
+                Thread.sleep(20);
+            }
+            // entries referenced by a handle or an URL are kept
+            assertThat(store.getMemoryUsed(), is(3_000L));
+            assertThat(Files.exists(spilled), is(false));
+            assertThat(readAll(store.load(kept)), is(content(1_000)));
+            assertThat(readAll(url.openStream()), is(content(2_000)));
+        }
+    }
+
+}